@@ -0,0 +1,214 @@
+package com.texteditor.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton matching a whole list of literal terms in one pass.
+ * Each node keeps its outgoing edges as sorted parallel arrays, a failure link
+ * and a link to the nearest terminal node along its failure chain, so every
+ * text character costs amortised O(1) plus one step per reported match.
+ * An automaton is immutable and safe to share between threads; build it once
+ * per term list and keep it, so glossary checks reuse it across documents.
+ */
+public final class AhoCorasick {
+
+    /**
+     * A single occurrence of one of the terms.
+     */
+    public static final class Match {
+        private final int start;
+        private final int end;
+        private final int termIndex;
+
+        Match(int start, int end, int termIndex) {
+            this.start = start;
+            this.end = end;
+            this.termIndex = termIndex;
+        }
+
+        // Getters
+        public int getStart() { return start; }
+        public int getEnd() { return end; }
+        public int getTermIndex() { return termIndex; }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ") term " + termIndex;
+        }
+    }
+
+    public interface MatchListener {
+        void onMatch(int start, int end, int termIndex);
+    }
+
+    private final List<String> terms;
+    private final boolean caseSensitive;
+
+    // Per node: sorted edge labels and their target nodes
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    // Term ending at the node, or -1
+    private final int[] output;
+    // Nearest node along the failure chain that ends a term, or -1
+    private final int[] outputLink;
+
+    private AhoCorasick(List<String> terms, boolean caseSensitive) {
+        this.terms = terms;
+        this.caseSensitive = caseSensitive;
+
+        List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        edges.add(new TreeMap<>());
+        ends.add(-1);
+
+        for (int t = 0; t < terms.size(); t++) {
+            String term = terms.get(t);
+            if (term == null || term.isEmpty()) continue;
+
+            int node = 0;
+            for (int i = 0; i < term.length(); i++) {
+                char c = fold(term.charAt(i));
+                Integer next = edges.get(node).get(c);
+                if (next == null) {
+                    next = edges.size();
+                    edges.get(node).put(c, next);
+                    edges.add(new TreeMap<>());
+                    ends.add(-1);
+                }
+                node = next;
+            }
+            // Duplicate terms report the first occurrence in the list
+            if (ends.get(node) < 0) {
+                ends.set(node, t);
+            }
+        }
+
+        int count = edges.size();
+        this.labels = new char[count][];
+        this.targets = new int[count][];
+        this.output = new int[count];
+        for (int node = 0; node < count; node++) {
+            TreeMap<Character, Integer> out = edges.get(node);
+            labels[node] = new char[out.size()];
+            targets[node] = new int[out.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : out.entrySet()) {
+                labels[node][i] = edge.getKey();
+                targets[node][i] = edge.getValue();
+                i++;
+            }
+            output[node] = ends.get(node);
+        }
+
+        this.fail = new int[count];
+        this.outputLink = new int[count];
+        outputLink[0] = -1;
+        linkFailures();
+    }
+
+    /**
+     * Build the automaton for the terms under the given case mode. Costs time
+     * linear in the total term length. Term indices in reported matches refer to
+     * positions in {@code terms}; terms equal under the case mode report the first
+     * of them, and null and empty terms never match.
+     */
+    public static AhoCorasick compile(List<String> terms, boolean caseSensitive) {
+        return new AhoCorasick(Collections.unmodifiableList(new ArrayList<>(terms)), caseSensitive);
+    }
+
+    public String getTerm(int termIndex) {
+        return terms.get(termIndex);
+    }
+
+    public int getTermCount() {
+        return terms.size();
+    }
+
+    /**
+     * Report every occurrence of every term, including overlapping ones, in order
+     * of end offset. With {@code wholeWords} a match must sit on word boundaries,
+     * matching the \b semantics of the regex whole-word search.
+     */
+    public void scan(CharSequence text, boolean wholeWords, MatchListener listener) {
+        int state = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = fold(text.charAt(i));
+            int next;
+            while ((next = step(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = Math.max(next, 0);
+
+            for (int node = output[state] >= 0 ? state : outputLink[state]; node >= 0; node = outputLink[node]) {
+                int termIndex = output[node];
+                int end = i + 1;
+                int start = end - terms.get(termIndex).length();
+                if (!wholeWords || (isBoundary(text, start) && isBoundary(text, end))) {
+                    listener.onMatch(start, end, termIndex);
+                }
+            }
+        }
+    }
+
+    public List<Match> findAll(CharSequence text, boolean wholeWords) {
+        List<Match> matches = new ArrayList<>();
+        scan(text, wholeWords, (start, end, termIndex) -> matches.add(new Match(start, end, termIndex)));
+        return matches;
+    }
+
+    // Construction helpers
+
+    private void linkFailures() {
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            fail[child] = 0;
+            outputLink[child] = -1;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < labels[node].length; i++) {
+                char c = labels[node][i];
+                int child = targets[node][i];
+
+                int f = fail[node];
+                int next;
+                while ((next = step(f, c)) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[child] = Math.max(next, 0);
+                outputLink[child] = output[fail[child]] >= 0 ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    private int step(int node, char c) {
+        int i = Arrays.binarySearch(labels[node], c);
+        return i >= 0 ? targets[node][i] : -1;
+    }
+
+    private char fold(char c) {
+        return caseSensitive ? c : LiteralMatcher.foldCase(c);
+    }
+
+    private static boolean isBoundary(CharSequence text, int offset) {
+        boolean before = offset > 0 && isWordChar(text.charAt(offset - 1));
+        boolean after = offset < text.length() && isWordChar(text.charAt(offset));
+        return before != after;
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+}
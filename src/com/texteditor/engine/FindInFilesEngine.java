@@ -0,0 +1,397 @@
+package com.texteditor.engine;
+
+import com.texteditor.engine.SearchReplaceEngine.SearchOption;
+import com.texteditor.util.Constants;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Searches every .txt and .jtx file under a directory with {@link SearchReplaceEngine}
+ * semantics. Directories are walked as fork-join tasks so files are searched in
+ * parallel; each file is memory-mapped in windows and decoded into a fixed char
+ * buffer, so memory use does not depend on file size. Hits are handed to the UI
+ * through a bounded queue, which slows the search down rather than buffering
+ * without limit when the consumer falls behind; a worker waiting for room is a
+ * managed blocker, so the pool keeps its parallelism meanwhile. Matches never
+ * span lines. A line longer than the char buffer is searched in pieces; plain
+ * literal matches across a cut are still found, but regex and whole-word matches
+ * that cross one are missed. Files and directories that cannot be read are
+ * reported through {@link Search#getFailures()}.
+ */
+public class FindInFilesEngine {
+
+    private static final int MAP_WINDOW_SIZE = 16 * 1024 * 1024;
+    private static final int CHAR_WINDOW_SIZE = 1 << 20;
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int PREVIEW_LENGTH = 200;
+
+    /**
+     * One match, with 1-based line and column.
+     */
+    public static final class Hit {
+        private final Path file;
+        private final long line;
+        private final long column;
+        private final String preview;
+
+        Hit(Path file, long line, long column, String preview) {
+            this.file = file;
+            this.line = line;
+            this.column = column;
+            this.preview = preview;
+        }
+
+        // Getters
+        public Path getFile() { return file; }
+        public long getLine() { return line; }
+        public long getColumn() { return column; }
+        public String getPreview() { return preview; }
+
+        @Override
+        public String toString() {
+            return file + ":" + line + ":" + column + ": " + preview;
+        }
+    }
+
+    /**
+     * A running search. Consumers drain hits until {@link #isFinished()} returns
+     * true and the queue is empty.
+     */
+    public static final class Search {
+        private final BlockingQueue<Hit> hits = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final AtomicLong hitCount = new AtomicLong();
+        private final AtomicLong filesSearched = new AtomicLong();
+        private final AtomicLong bytesSearched = new AtomicLong();
+        private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+        private final AtomicLong failureCount = new AtomicLong();
+        private final long startNanos = System.nanoTime();
+        private volatile long endNanos;
+        private volatile boolean cancelled;
+        private volatile ForkJoinTask<?> root;
+
+        public void cancel() {
+            cancelled = true;
+            hits.clear();
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * True once every file has been searched or the search was cancelled;
+         * hits may still be waiting in the queue.
+         */
+        public boolean isFinished() {
+            return cancelled || (root != null && root.isDone());
+        }
+
+        /**
+         * Move up to {@code max} queued hits into {@code target}. Returns the number moved.
+         */
+        public int drainTo(Collection<? super Hit> target, int max) {
+            return hits.drainTo(target, max);
+        }
+
+        // Metrics
+        public long getHitCount() { return hitCount.get(); }
+        public long getFilesSearched() { return filesSearched.get(); }
+        public long getBytesSearched() { return bytesSearched.get(); }
+        public long getFailureCount() { return failureCount.get(); }
+
+        /**
+         * Why each file or directory that could not be searched was skipped, in the
+         * order the failures happened.
+         */
+        public List<String> getFailures() {
+            return new ArrayList<>(failures);
+        }
+
+        public double getHitsPerSecond() {
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            double seconds = (end - startNanos) / 1e9;
+            return seconds > 0 ? hitCount.get() / seconds : 0;
+        }
+
+        void publish(Hit hit) {
+            HitOffer offer = new HitOffer(hit);
+            try {
+                ForkJoinPool.managedBlock(offer);
+                if (offer.offered && !cancelled) hitCount.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+        }
+
+        void fail(String message) {
+            failures.add(message);
+            failureCount.incrementAndGet();
+        }
+
+        /**
+         * Back-pressure: waits for room in the queue, but keeps honouring cancellation.
+         */
+        private final class HitOffer implements ForkJoinPool.ManagedBlocker {
+            private final Hit hit;
+            private boolean offered;
+
+            HitOffer(Hit hit) {
+                this.hit = hit;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                if (!offered && !cancelled) offered = hits.offer(hit);
+                return offered || cancelled;
+            }
+
+            @Override
+            public boolean block() throws InterruptedException {
+                if (!offered && !cancelled) offered = hits.offer(hit, 100, TimeUnit.MILLISECONDS);
+                return offered || cancelled;
+            }
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public FindInFilesEngine() {
+        this(new ForkJoinPool());
+    }
+
+    public FindInFilesEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Start searching {@code root} recursively and return immediately.
+     */
+    public Search search(Path root, String term, Set<SearchOption> options) {
+        SearchReplaceEngine engine = new SearchReplaceEngine();
+        for (SearchOption option : options) {
+            engine.setOption(option, true);
+        }
+
+        Search search = new Search();
+        search.root = pool.submit(new DirectoryTask(root, term, engine, search));
+        pool.execute(() -> {
+            search.root.quietlyJoin();
+            search.endNanos = System.nanoTime();
+        });
+        return search;
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public static boolean isSearchable(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(Constants.TEXT_FILE_EXTENSION) || name.endsWith(Constants.JTX_FILE_EXTENSION);
+    }
+
+    @SuppressWarnings("serial")
+    private static final class DirectoryTask extends RecursiveAction {
+        private final Path directory;
+        private final String term;
+        private final SearchReplaceEngine engine;
+        private final Search search;
+
+        DirectoryTask(Path directory, String term, SearchReplaceEngine engine, Search search) {
+            this.directory = directory;
+            this.term = term;
+            this.engine = engine;
+            this.search = search;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.isCancelled()) return;
+
+            List<RecursiveAction> tasks = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    // Symbolic links are not followed, so directory cycles cannot occur
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        tasks.add(new DirectoryTask(entry, term, engine, search));
+                    } else if (isSearchable(entry) && Files.isRegularFile(entry)) {
+                        tasks.add(new FileTask(entry, term, engine, search));
+                    }
+                }
+            } catch (IOException e) {
+                search.fail("Could not list " + directory + ": " + e.getMessage());
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class FileTask extends RecursiveAction {
+        private final Path file;
+        private final String term;
+        private final SearchReplaceEngine engine;
+        private final Search search;
+        // Chars kept back at a cut inside a line, so a literal match across it is found next round
+        private final int overlap;
+        // Where the next round resumes, past the last match that ran into the kept chars
+        private int resumeAt;
+
+        // Line bookkeeping for the char window being searched
+        private long line = 1;
+        private int countedTo;
+        private int lineStart;
+        // Chars of the current line in earlier windows, and its preview if it began there
+        private long lineCarried;
+        private String carriedPreview;
+
+        FileTask(Path file, String term, SearchReplaceEngine engine, Search search) {
+            this.file = file;
+            this.term = term;
+            this.engine = engine;
+            this.search = search;
+            boolean literal = !engine.isOptionEnabled(SearchOption.USE_REGEX)
+                    && !engine.isOptionEnabled(SearchOption.WHOLE_WORDS_ONLY);
+            this.overlap = literal ? Math.max(term.length() - 1, 0) : 0;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.isCancelled()) return;
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                searchChannel(channel);
+                search.filesSearched.incrementAndGet();
+            } catch (IOException e) {
+                search.fail("Could not search " + file + ": " + e.getMessage());
+            } catch (RegexGuard.AbortedException e) {
+                search.fail("Search of " + file + " abandoned: " + e.getStatus());
+            }
+        }
+
+        private void searchChannel(FileChannel channel) throws IOException {
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer chars = CharBuffer.allocate(CHAR_WINDOW_SIZE);
+            long size = channel.size();
+            long offset = 0;
+
+            while (offset < size && !search.isCancelled()) {
+                long length = Math.min(MAP_WINDOW_SIZE, size - offset);
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                boolean lastWindow = offset + length == size;
+
+                while (!search.isCancelled()) {
+                    CoderResult result = decoder.decode(bytes, chars, lastWindow);
+                    if (result.isUnderflow() && lastWindow) {
+                        decoder.flush(chars);
+                    }
+                    boolean done = result.isUnderflow();
+                    chars = searchWindow(chars, done && lastWindow);
+                    if (done) break;
+                }
+
+                // Bytes of a character split across windows are decoded from the next window
+                search.bytesSearched.addAndGet(bytes.position());
+                offset += bytes.position();
+                if (bytes.position() == 0 && !lastWindow) {
+                    throw new IOException("Undecodable data at byte " + offset);
+                }
+            }
+        }
+
+        /**
+         * Search the complete lines in the buffer and keep the unfinished last line
+         * for the next round. Returns the buffer to fill next.
+         */
+        private CharBuffer searchWindow(CharBuffer chars, boolean endOfInput) {
+            chars.flip();
+            int limit = chars.limit();
+            boolean cut = false;
+            if (!endOfInput) {
+                int lastBreak = limit - 1;
+                while (lastBreak >= 0 && chars.get(lastBreak) != '\n') lastBreak--;
+                if (lastBreak >= 0) {
+                    limit = lastBreak + 1;
+                } else if (chars.limit() < chars.capacity()) {
+                    // Not full yet: wait for more input before searching a partial line
+                    chars.position(chars.limit()).limit(chars.capacity());
+                    return chars;
+                }
+                // A full buffer without a line break is searched as is
+                cut = lastBreak < 0;
+            }
+            // Literal matches have the term's length, so none found here starts in the kept chars
+            int keep = cut ? limit - overlap : limit;
+
+            countedTo = 0;
+            lineStart = 0;
+            CharSequence window = chars.subSequence(0, limit);
+            MatchCursor cursor = engine.cursor(window.subSequence(resumeAt, limit), term);
+            int matchEnd = 0;
+            while (!search.isCancelled() && cursor.next()) {
+                int start = resumeAt + cursor.start();
+                matchEnd = resumeAt + cursor.end();
+                advanceLines(window, start);
+                String preview = lineCarried > 0 ? carriedPreview : preview(window, lineStart);
+                search.publish(new Hit(file, line, lineCarried + start - lineStart + 1, preview));
+            }
+            advanceLines(window, limit);
+            resumeAt = Math.max(matchEnd - keep, 0);
+
+            if (cut) {
+                if (lineCarried == 0) carriedPreview = preview(window, lineStart);
+                lineCarried += keep - lineStart;
+            }
+
+            chars.position(keep);
+            chars.compact();
+            return chars;
+        }
+
+        private void advanceLines(CharSequence window, int to) {
+            for (int i = countedTo; i < to; i++) {
+                if (window.charAt(i) == '\n') {
+                    line++;
+                    lineStart = i + 1;
+                    lineCarried = 0;
+                }
+            }
+            countedTo = Math.max(countedTo, to);
+        }
+
+        private static String preview(CharSequence window, int lineStart) {
+            int end = lineStart;
+            int max = Math.min(window.length(), lineStart + PREVIEW_LENGTH);
+            while (end < max && window.charAt(end) != '\n' && window.charAt(end) != '\r') end++;
+            return window.subSequence(lineStart, end).toString();
+        }
+    }
+}
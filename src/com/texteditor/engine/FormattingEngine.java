@@ -1,6 +1,11 @@
 package com.texteditor.engine;
 
+import com.texteditor.model.LineIndex;
 import com.texteditor.model.Style;
+import com.texteditor.model.TextStyle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * Handles all text formatting operations.
@@ -32,19 +37,91 @@ public class FormattingEngine {
     }
 
     public String applyStyle(String text, Style style) {
-        StringBuilder result = new StringBuilder(text);
+        int flags = (style.isBold() ? TextStyle.BOLD : 0)
+                | (style.isItalic() ? TextStyle.ITALIC : 0)
+                | (style.isUnderline() ? TextStyle.UNDERLINE : 0);
+        TextStyle tags = TextStyle.of(flags, null, 0, null, null);
+
+        StringBuilder result = new StringBuilder(text.length() + 21);
+        try {
+            writeOpenTags(result, tags);
+            result.append(text);
+            writeCloseTags(result, tags);
+        } catch (IOException e) {
+            // StringBuilder does not throw
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
 
-        if (style.isBold()) {
-            result = new StringBuilder(applyBold(result.toString()));
+    // Streaming variants - write to any Appendable, nested as applyStyle nests them
+
+    /**
+     * Write the opening tags for a style, outermost first: font, colour, highlight,
+     * strikethrough, underline, italic, bold.
+     */
+    public void writeOpenTags(Appendable out, TextStyle style) throws IOException {
+        if (style.getFontFamily() != null || style.getFontSize() > 0) {
+            out.append("<span style='");
+            if (style.getFontFamily() != null) {
+                out.append("font-family:");
+                escapeHtml(style.getFontFamily(), 0, style.getFontFamily().length(), out);
+                out.append(';');
+            }
+            if (style.getFontSize() > 0) {
+                out.append("font-size:").append(Integer.toString(style.getFontSize())).append("px");
+            }
+            out.append("'>");
         }
-        if (style.isItalic()) {
-            result = new StringBuilder(applyItalic(result.toString()));
+        if (style.getTextColor() != null) {
+            out.append("<span style='color:");
+            escapeHtml(style.getTextColor(), 0, style.getTextColor().length(), out);
+            out.append("'>");
         }
-        if (style.isUnderline()) {
-            result = new StringBuilder(applyUnderline(result.toString()));
+        if (style.getBackgroundColor() != null) {
+            out.append("<span style='background-color:");
+            escapeHtml(style.getBackgroundColor(), 0, style.getBackgroundColor().length(), out);
+            out.append("'>");
         }
+        if (style.has(TextStyle.STRIKETHROUGH)) out.append("<s>");
+        if (style.has(TextStyle.UNDERLINE)) out.append("<u>");
+        if (style.has(TextStyle.ITALIC)) out.append("<i>");
+        if (style.has(TextStyle.BOLD)) out.append("<b>");
+    }
 
-        return result.toString();
+    /**
+     * Write the closing tags matching {@link #writeOpenTags}, innermost first.
+     */
+    public void writeCloseTags(Appendable out, TextStyle style) throws IOException {
+        if (style.has(TextStyle.BOLD)) out.append("</b>");
+        if (style.has(TextStyle.ITALIC)) out.append("</i>");
+        if (style.has(TextStyle.UNDERLINE)) out.append("</u>");
+        if (style.has(TextStyle.STRIKETHROUGH)) out.append("</s>");
+        if (style.getBackgroundColor() != null) out.append("</span>");
+        if (style.getTextColor() != null) out.append("</span>");
+        if (style.getFontFamily() != null || style.getFontSize() > 0) out.append("</span>");
+    }
+
+    /**
+     * Write text[start, end) with HTML special characters escaped. Runs without
+     * special characters are written in one call.
+     */
+    public void escapeHtml(CharSequence text, int start, int end, Appendable out) throws IOException {
+        int run = start;
+        for (int i = start; i < end; i++) {
+            String entity;
+            switch (text.charAt(i)) {
+                case '&': entity = "&amp;"; break;
+                case '<': entity = "&lt;"; break;
+                case '>': entity = "&gt;"; break;
+                case '"': entity = "&quot;"; break;
+                case '\'': entity = "&#39;"; break;
+                default: continue;
+            }
+            out.append(text, run, i).append(entity);
+            run = i + 1;
+        }
+        out.append(text, run, end);
     }
 
     public int calculateLineLength(String line) {
@@ -52,11 +129,29 @@ public class FormattingEngine {
     }
 
     public int getColumnFromOffset(String text, int offset) {
-        int lineStart = text.lastIndexOf('\n', offset) + 1;
+        int lineStart = offset == 0 ? 0 : text.lastIndexOf('\n', offset - 1) + 1;
         return offset - lineStart;
     }
 
     public int getLineFromOffset(String text, int offset) {
-        return text.substring(0, offset).split("\n", -1).length;
+        int line = 1;
+        for (int i = 0; i < offset; i++) {
+            if (text.charAt(i) == '\n') line++;
+        }
+        return line;
+    }
+
+    // Index-backed lookups - O(log n), numbered like the String variants (1-based lines, 0-based columns)
+
+    public int getColumnFromOffset(LineIndex index, int offset) {
+        return index.getColumnOfOffset(offset);
+    }
+
+    public int getLineFromOffset(LineIndex index, int offset) {
+        return index.getLineOfOffset(offset) + 1;
+    }
+
+    public int getOffsetFromLine(LineIndex index, int line) {
+        return index.getLineStart(line - 1);
     }
 }
@@ -0,0 +1,105 @@
+package com.texteditor.engine;
+
+import com.texteditor.model.TextStyle;
+import org.fxmisc.richtext.model.Paragraph;
+import org.fxmisc.richtext.model.StyleSpan;
+import org.fxmisc.richtext.model.StyledDocument;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Writes a styled document as HTML, one paragraph and style span at a time.
+ * Tags come from {@link FormattingEngine}, and text is escaped straight into a
+ * buffered writer, so no string of the whole document is ever built and
+ * memory use beyond the document itself is constant.
+ */
+public class HtmlExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public interface Listener {
+        /**
+         * Called on the export thread; {@code error} is null if the export succeeded.
+         */
+        void onComplete(Path file, IOException error);
+    }
+
+    private final FormattingEngine formattingEngine;
+    private final ExecutorService executor;
+
+    public HtmlExporter() {
+        this(new FormattingEngine());
+    }
+
+    public HtmlExporter(FormattingEngine formattingEngine) {
+        this.formattingEngine = formattingEngine;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "html-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Export on the exporter thread. The document must be immutable, e.g. a
+     * {@code subDocument} of the editor taken on the FX thread.
+     */
+    public void exportAsync(StyledDocument<?, String, TextStyle> document, String title, Path file, Listener listener) {
+        executor.execute(() -> {
+            IOException error = null;
+            try {
+                export(document, title, file);
+            } catch (IOException e) {
+                error = e;
+            }
+            listener.onComplete(file, error);
+        });
+    }
+
+    public void export(StyledDocument<?, String, TextStyle> document, String title, Path file) throws IOException {
+        try (Writer out = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            export(document, title, out);
+        }
+    }
+
+    public void export(StyledDocument<?, String, TextStyle> document, String title, Writer out) throws IOException {
+        out.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<title>");
+        formattingEngine.escapeHtml(title, 0, title.length(), out);
+        out.write("</title>\n<style>p { margin: 0; }</style>\n</head>\n<body style='white-space: pre-wrap'>\n");
+        for (Paragraph<?, String, TextStyle> paragraph : document.getParagraphs()) {
+            writeParagraph(paragraph, out);
+        }
+        out.write("</body>\n</html>\n");
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void writeParagraph(Paragraph<?, String, TextStyle> paragraph, Writer out) throws IOException {
+        String text = paragraph.getText();
+        out.write("<p>");
+        if (text.isEmpty()) out.write("<br>");
+
+        int position = 0;
+        for (StyleSpan<TextStyle> span : paragraph.getStyleSpans()) {
+            int end = position + span.getLength();
+            if (end > position) {
+                formattingEngine.writeOpenTags(out, span.getStyle());
+                formattingEngine.escapeHtml(text, position, end, out);
+                formattingEngine.writeCloseTags(out, span.getStyle());
+            }
+            position = end;
+        }
+        out.write("</p>\n");
+    }
+}
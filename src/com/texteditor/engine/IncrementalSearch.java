@@ -0,0 +1,244 @@
+package com.texteditor.engine;
+
+import com.texteditor.util.IntList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Search-as-you-type for literal terms on a background thread.
+ * Every occurrence (including overlapping ones) of the last query is kept, so
+ * when the next query extends it only those candidates are re-checked instead of
+ * rescanning the text. Only non-overlapping matches, taken left to right as
+ * replace-all takes them, are reported, so the count shown is the number of
+ * matches a replace would change. They are streamed to the listener in
+ * ascending batches, and starting a new query cancels the one in flight. The text must not change
+ * while it is being searched; pass a document snapshot. Candidate ranges from a
+ * document's trigram index narrow the scan to the blocks that can match.
+ */
+public class IncrementalSearch {
+
+    private static final int SLICE_SIZE = 1 << 16;
+    private static final int BATCH_SIZE = 256;
+
+    public interface Listener {
+        void onMatches(Query query, int[] starts);
+
+        void onComplete(Query query, int total);
+    }
+
+    /**
+     * Handle for one submitted query; stale once a newer query is started.
+     */
+    public final class Query {
+        private final int generation;
+        private final String text;
+
+        private Query(int generation, String text) {
+            this.generation = generation;
+            this.text = text;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public boolean isCurrent() {
+            return generation == IncrementalSearch.this.generation.get();
+        }
+    }
+
+    private final ExecutorService executor;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    // Refinement state, only touched on the worker thread.
+    // Candidates hold every start of lastQuery below scannedTo.
+    private CharSequence lastText;
+    private String lastQuery = "";
+    private boolean lastCaseSensitive;
+    private IntList candidates = new IntList();
+    private int scannedTo;
+
+    public IncrementalSearch() {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "incremental-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start searching for {@code query}, cancelling any query still running.
+     */
+    public Query search(CharSequence text, String query, boolean caseSensitive, Listener listener) {
+        return search(text, query, caseSensitive, null, listener);
+    }
+
+    /**
+     * Search only the [start, end) ranges in which {@code query} may start, in
+     * ascending order, e.g. from {@link com.texteditor.model.TrigramIndex#findCandidates}
+     * for the same version of the text. Null searches the whole text.
+     */
+    public Query search(CharSequence text, String query, boolean caseSensitive, List<int[]> ranges, Listener listener) {
+        Query handle = new Query(generation.incrementAndGet(), query);
+        executor.execute(() -> run(handle, text, caseSensitive, ranges, listener));
+        return handle;
+    }
+
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private void run(Query query, CharSequence text, boolean caseSensitive, List<int[]> ranges, Listener listener) {
+        if (!query.isCurrent()) return;
+
+        String term = query.getText();
+        if (term.isEmpty()) {
+            reset(text, term, caseSensitive);
+            listener.onComplete(query, 0);
+            return;
+        }
+
+        boolean refine = text == lastText
+                && caseSensitive == lastCaseSensitive
+                && !lastQuery.isEmpty()
+                && term.length() >= lastQuery.length()
+                && startsWith(term, lastQuery, caseSensitive);
+
+        IntList matches = new IntList();
+        Batch batch = new Batch(query, listener, term.length());
+        int from;
+
+        if (refine) {
+            for (int i = 0; i < candidates.size(); i++) {
+                int start = candidates.get(i);
+                if (matchesSuffix(text, start, term, lastQuery.length(), caseSensitive)) {
+                    matches.add(start);
+                    batch.add(start);
+                }
+                if ((i & (SLICE_SIZE - 1)) == 0 && !query.isCurrent()) {
+                    // Keep the previous state; it is still valid for future refinements
+                    return;
+                }
+            }
+            from = scannedTo;
+        } else {
+            from = 0;
+        }
+
+        // Only the part of the text the previous query never reached is scanned
+        LiteralMatcher matcher = LiteralMatcher.of(term, caseSensitive);
+        int length = text.length();
+        int range = 0;
+        for (int sliceStart = from; sliceStart < length; sliceStart += SLICE_SIZE) {
+            int sliceEnd = Math.min(length, sliceStart + SLICE_SIZE);
+            if (ranges == null) {
+                scan(text, matcher, sliceStart, sliceEnd, matches, batch);
+            } else {
+                while (range < ranges.size() && ranges.get(range)[1] <= sliceStart) range++;
+                for (int r = range; r < ranges.size() && ranges.get(r)[0] < sliceEnd; r++) {
+                    int[] candidate = ranges.get(r);
+                    scan(text, matcher, Math.max(sliceStart, candidate[0]), Math.min(sliceEnd, candidate[1]), matches, batch);
+                }
+            }
+            batch.flush();
+
+            if (!query.isCurrent()) {
+                commit(text, term, caseSensitive, matches, sliceEnd);
+                return;
+            }
+        }
+
+        commit(text, term, caseSensitive, matches, length);
+        batch.flush();
+        listener.onComplete(query, batch.reported);
+    }
+
+    // Every occurrence starting in [start, end), overlapping ones included
+    private static void scan(CharSequence text, LiteralMatcher matcher, int start, int end, IntList matches, Batch batch) {
+        int to = (int) Math.min(text.length(), (long) end + matcher.length() - 1);
+        int index = start;
+        while ((index = matcher.indexOf(text, index, to)) != -1) {
+            matches.add(index);
+            batch.add(index);
+            index++;
+        }
+    }
+
+    private void reset(CharSequence text, String term, boolean caseSensitive) {
+        commit(text, term, caseSensitive, new IntList(), 0);
+    }
+
+    private void commit(CharSequence text, String term, boolean caseSensitive, IntList matches, int scanned) {
+        this.lastText = text;
+        this.lastQuery = term;
+        this.lastCaseSensitive = caseSensitive;
+        this.candidates = matches;
+        this.scannedTo = scanned;
+    }
+
+    private static boolean startsWith(String term, String prefix, boolean caseSensitive) {
+        for (int i = 0; i < prefix.length(); i++) {
+            if (fold(term.charAt(i), caseSensitive) != fold(prefix.charAt(i), caseSensitive)) return false;
+        }
+        return true;
+    }
+
+    private static boolean matchesSuffix(CharSequence text, int start, String term, int from, boolean caseSensitive) {
+        if (start + term.length() > text.length()) return false;
+        for (int i = from; i < term.length(); i++) {
+            if (fold(text.charAt(start + i), caseSensitive) != fold(term.charAt(i), caseSensitive)) return false;
+        }
+        return true;
+    }
+
+    private static char fold(char c, boolean caseSensitive) {
+        return caseSensitive ? c : LiteralMatcher.foldCase(c);
+    }
+
+    /**
+     * Buffers match starts and hands them to the listener in small arrays,
+     * dropping any that overlap the previously reported match.
+     */
+    private static final class Batch {
+        private final Query query;
+        private final Listener listener;
+        private final int termLength;
+        private final int[] starts = new int[BATCH_SIZE];
+        private int count;
+        private int reported;
+        private long nextAllowed;
+
+        Batch(Query query, Listener listener, int termLength) {
+            this.query = query;
+            this.listener = listener;
+            this.termLength = termLength;
+        }
+
+        // Starts arrive in ascending order
+        void add(int start) {
+            if (start < nextAllowed) return;
+            nextAllowed = (long) start + termLength;
+            reported++;
+            starts[count++] = start;
+            if (count == starts.length) flush();
+        }
+
+        void flush() {
+            if (count == 0 || !query.isCurrent()) {
+                count = 0;
+                return;
+            }
+            listener.onMatches(query, Arrays.copyOf(starts, count));
+            count = 0;
+        }
+    }
+}
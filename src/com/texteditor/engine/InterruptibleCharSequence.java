@@ -0,0 +1,123 @@
+package com.texteditor.engine;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link CharSequence} wrapper that aborts a regex match once its budget is spent.
+ * java.util.regex cannot be interrupted, but every backtracking step reads the
+ * input, so the wrapper counts character reads and periodically checks the
+ * time spent, step limit, cancellation flag and thread interrupt, throwing
+ * {@link RegexGuard.AbortedException} to unwind the matcher.
+ * Only matching is charged: the clock starts with the first reads, and while
+ * {@link #pause() paused}, e.g. between the finds of a lazy cursor or while a
+ * replacement copies text, neither time nor reads count against the budget.
+ */
+public final class InterruptibleCharSequence implements CharSequence {
+
+    // Reads between checks, keeping System.nanoTime off the hot path
+    private static final int CHECK_INTERVAL = 4096;
+
+    private final CharSequence text;
+    private final long timeoutNanos;
+    private final long maxSteps;
+    private final BooleanSupplier cancelled;
+    private long steps;
+    private int untilCheck = CHECK_INTERVAL;
+
+    // Matching time charged so far, plus the start of the current run if the clock is running
+    private long spentNanos;
+    private long resumedAt;
+    private boolean clockRunning;
+    private boolean paused;
+
+    /**
+     * @param timeoutNanos matching time allowed, or 0 for no limit
+     * @param maxSteps     maximum character reads, or 0 for no limit
+     * @param cancelled    polled with the other checks; true aborts the match
+     */
+    public InterruptibleCharSequence(CharSequence text, long timeoutNanos, long maxSteps, BooleanSupplier cancelled) {
+        this.text = text;
+        this.timeoutNanos = timeoutNanos;
+        this.maxSteps = maxSteps > 0 ? maxSteps : Long.MAX_VALUE;
+        this.cancelled = cancelled;
+    }
+
+    public long getSteps() {
+        return paused ? steps : steps + (CHECK_INTERVAL - untilCheck);
+    }
+
+    /**
+     * Stop charging time and reads until {@link #resume()} is called.
+     */
+    public void pause() {
+        if (paused) return;
+        steps += CHECK_INTERVAL - untilCheck;
+        if (clockRunning) {
+            spentNanos += System.nanoTime() - resumedAt;
+            clockRunning = false;
+        }
+        paused = true;
+    }
+
+    /**
+     * Charge time and reads again from now on.
+     */
+    public void resume() {
+        if (!paused) return;
+        paused = false;
+        untilCheck = CHECK_INTERVAL;
+        if (timeoutNanos > 0) {
+            resumedAt = System.nanoTime();
+            clockRunning = true;
+        }
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (--untilCheck <= 0) {
+            check();
+        }
+        return text.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    /**
+     * Used by the matcher for group text only, so the slice is not guarded.
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return text.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    private void check() {
+        untilCheck = CHECK_INTERVAL;
+
+        if (Thread.currentThread().isInterrupted() || cancelled.getAsBoolean()) {
+            throw new RegexGuard.AbortedException(RegexGuard.Status.CANCELLED);
+        }
+        if (paused) return;
+
+        steps += CHECK_INTERVAL;
+        if (steps >= maxSteps) {
+            throw new RegexGuard.AbortedException(RegexGuard.Status.STEP_LIMIT_EXCEEDED);
+        }
+        if (timeoutNanos > 0) {
+            long now = System.nanoTime();
+            if (!clockRunning) {
+                resumedAt = now;
+                clockRunning = true;
+            } else if (spentNanos + (now - resumedAt) > timeoutNanos) {
+                throw new RegexGuard.AbortedException(RegexGuard.Status.TIMED_OUT);
+            }
+        }
+    }
+}
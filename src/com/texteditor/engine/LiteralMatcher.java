@@ -0,0 +1,112 @@
+package com.texteditor.engine;
+
+import com.texteditor.util.IntList;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Boyer-Moore-Horspool matcher for literal search terms.
+ * Case-insensitive matching folds characters on the fly, so the searched text is
+ * never lowercased or copied. Shift tables are precomputed once per needle and
+ * the matchers are cached, so repeated searches for the same term reuse them.
+ */
+public final class LiteralMatcher {
+
+    private static final int CACHE_CAPACITY = 64;
+    private static final Map<String, LiteralMatcher> CACHE = new LinkedHashMap<String, LiteralMatcher>(CACHE_CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LiteralMatcher> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+
+    private final char[] needle;
+    private final boolean caseSensitive;
+    // Bad-character shifts bucketed by the low byte; colliding chars keep the smallest (safe) shift
+    private final int[] shifts;
+
+    private LiteralMatcher(String term, boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+        this.needle = new char[term.length()];
+        for (int i = 0; i < needle.length; i++) {
+            needle[i] = fold(term.charAt(i));
+        }
+
+        this.shifts = new int[256];
+        Arrays.fill(shifts, Math.max(needle.length, 1));
+        for (int i = 0; i < needle.length - 1; i++) {
+            shifts[needle[i] & 0xFF] = needle.length - 1 - i;
+        }
+    }
+
+    public static LiteralMatcher of(String term, boolean caseSensitive) {
+        String key = (caseSensitive ? 'S' : 'I') + term;
+        synchronized (CACHE) {
+            return CACHE.computeIfAbsent(key, k -> new LiteralMatcher(term, caseSensitive));
+        }
+    }
+
+    public int length() {
+        return needle.length;
+    }
+
+    /**
+     * Index of the first match at or after {@code from}, or -1.
+     */
+    public int indexOf(CharSequence text, int from) {
+        return indexOf(text, from, text.length());
+    }
+
+    /**
+     * Index of the first match lying entirely within [from, to), or -1.
+     */
+    public int indexOf(CharSequence text, int from, int to) {
+        int m = needle.length;
+        if (m == 0) return -1;
+
+        int last = m - 1;
+        int position = Math.max(from, 0);
+        while (position <= to - m) {
+            char tail = fold(text.charAt(position + last));
+            if (tail == needle[last]) {
+                int j = last - 1;
+                while (j >= 0 && fold(text.charAt(position + j)) == needle[j]) {
+                    j--;
+                }
+                if (j < 0) return position;
+            }
+            position += shifts[tail & 0xFF];
+        }
+        return -1;
+    }
+
+    /**
+     * Append the starts of all non-overlapping matches to {@code out}.
+     */
+    public void findAll(CharSequence text, IntList out) {
+        if (needle.length == 0) return;
+
+        int index = 0;
+        while ((index = indexOf(text, index)) != -1) {
+            out.add(index);
+            index += needle.length;
+        }
+    }
+
+    private char fold(char c) {
+        return caseSensitive ? c : foldCase(c);
+    }
+
+    /**
+     * Case-insensitive fold shared with {@link AhoCorasick}, consistent with
+     * Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE for single characters.
+     */
+    static char foldCase(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -0,0 +1,168 @@
+package com.texteditor.engine;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy, forward-only cursor over search matches.
+ * Each call to {@link #next()} finds one more match, so callers can page through
+ * results or stop early without materialising them. No object is allocated per
+ * match. As a {@link Spliterator.OfInt} it yields match starts, for use with
+ * {@link #starts()} or {@link StreamSupport#intStream}.
+ */
+public abstract class MatchCursor implements Spliterator.OfInt {
+
+    private static final MatchCursor EMPTY = new MatchCursor() {
+        @Override
+        public boolean next() {
+            return false;
+        }
+
+        @Override
+        public int start() {
+            throw new IllegalStateException("No current match");
+        }
+
+        @Override
+        public int end() {
+            throw new IllegalStateException("No current match");
+        }
+    };
+
+    public static MatchCursor empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Advance to the next match. Returns false once the matches are exhausted.
+     */
+    public abstract boolean next();
+
+    /**
+     * Start offset of the current match.
+     */
+    public abstract int start();
+
+    /**
+     * End offset (exclusive) of the current match.
+     */
+    public abstract int end();
+
+    /**
+     * Remaining match starts as a sequential stream.
+     */
+    public IntStream starts() {
+        return StreamSupport.intStream(this, false);
+    }
+
+    // Spliterator.OfInt
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+        if (!next()) return false;
+        action.accept(start());
+        return true;
+    }
+
+    @Override
+    public Spliterator.OfInt trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | SORTED | NONNULL;
+    }
+
+    @Override
+    public Comparator<? super Integer> getComparator() {
+        // Natural order
+        return null;
+    }
+
+    // Implementations
+
+    static MatchCursor literal(CharSequence text, LiteralMatcher matcher) {
+        if (matcher.length() == 0) return EMPTY;
+
+        return new MatchCursor() {
+            private int start = -1;
+            private int from;
+
+            @Override
+            public boolean next() {
+                if (from < 0) return false;
+                start = matcher.indexOf(text, from);
+                from = start < 0 ? -1 : start + matcher.length();
+                return start >= 0;
+            }
+
+            @Override
+            public int start() {
+                checkMatch(start);
+                return start;
+            }
+
+            @Override
+            public int end() {
+                checkMatch(start);
+                return start + matcher.length();
+            }
+        };
+    }
+
+    static MatchCursor regex(Matcher matcher) {
+        return regex(matcher, null);
+    }
+
+    /**
+     * A cursor over a matcher reading {@code input}, whose budget is only charged
+     * while a match is being searched for, not while the cursor sits idle.
+     */
+    static MatchCursor regex(Matcher matcher, InterruptibleCharSequence input) {
+        return new MatchCursor() {
+            private boolean matched;
+            private boolean exhausted;
+
+            @Override
+            public boolean next() {
+                if (exhausted) return false;
+                if (input != null) input.resume();
+                try {
+                    matched = matcher.find();
+                } finally {
+                    if (input != null) input.pause();
+                }
+                exhausted = !matched;
+                return matched;
+            }
+
+            @Override
+            public int start() {
+                checkMatch(matched ? 0 : -1);
+                return matcher.start();
+            }
+
+            @Override
+            public int end() {
+                checkMatch(matched ? 0 : -1);
+                return matcher.end();
+            }
+        };
+    }
+
+    private static void checkMatch(int position) {
+        if (position < 0) {
+            throw new IllegalStateException("No current match");
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.texteditor.engine;
+
+import java.util.Arrays;
+
+/**
+ * Compact, immutable set of matches stored as packed start/end pairs in a single
+ * int array: 8 bytes per match instead of a boxed Integer list entry.
+ */
+public final class MatchResultSet {
+
+    private static final MatchResultSet EMPTY = new MatchResultSet(new int[0], 0);
+
+    // start0, end0, start1, end1, ...
+    private final int[] bounds;
+    private final int size;
+
+    private MatchResultSet(int[] bounds, int size) {
+        this.bounds = bounds;
+        this.size = size;
+    }
+
+    public static MatchResultSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Wrap packed start/end pairs without copying.
+     */
+    static MatchResultSet of(int[] bounds, int size) {
+        return size == 0 ? EMPTY : new MatchResultSet(bounds, size);
+    }
+
+    /**
+     * Drain the remaining matches of a cursor.
+     */
+    public static MatchResultSet of(MatchCursor cursor) {
+        return of(cursor, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Drain at most {@code limit} matches of a cursor; the cursor can be resumed for the next page.
+     */
+    public static MatchResultSet of(MatchCursor cursor, int limit) {
+        int[] bounds = new int[32];
+        int size = 0;
+        while (size < limit && cursor.next()) {
+            if (size * 2 == bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[size * 2] = cursor.start();
+            bounds[size * 2 + 1] = cursor.end();
+            size++;
+        }
+        return size == 0 ? EMPTY : new MatchResultSet(bounds, size);
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public int getStart(int index) {
+        checkIndex(index);
+        return bounds[index * 2];
+    }
+
+    public int getEnd(int index) {
+        checkIndex(index);
+        return bounds[index * 2 + 1];
+    }
+
+    public int[] toStartArray() {
+        int[] starts = new int[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = bounds[i * 2];
+        }
+        return starts;
+    }
+
+    /**
+     * Cursor over the stored matches.
+     */
+    public MatchCursor cursor() {
+        return new MatchCursor() {
+            private int index = -1;
+
+            @Override
+            public boolean next() {
+                if (index + 1 >= size) {
+                    index = size;
+                    return false;
+                }
+                index++;
+                return true;
+            }
+
+            @Override
+            public int start() {
+                return getStart(index);
+            }
+
+            @Override
+            public int end() {
+                return getEnd(index);
+            }
+
+            @Override
+            public long estimateSize() {
+                return Math.max(size - index - 1, 0);
+            }
+
+            @Override
+            public int characteristics() {
+                return super.characteristics() | SIZED;
+            }
+        };
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.texteditor.engine;
+
+import com.texteditor.engine.SearchReplaceEngine.SearchOption;
+import com.texteditor.util.IntList;
+
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fork-join search over large texts split into fixed-size chunks.
+ * Each chunk reports matches starting inside it, reading up to one term length
+ * past its end, so no match is lost at a boundary. Chunk results are merged in
+ * order and re-synchronised where a match straddling a boundary shifts the
+ * following non-overlapping matches, giving exactly the sequential result.
+ * Regex searches have unbounded match lengths and stay sequential.
+ * The text must be safe for concurrent reads, e.g. a String or a document
+ * {@link com.texteditor.model.Rope} snapshot; the live piece table is not.
+ */
+public class ParallelSearch {
+
+    public static final int SEQUENTIAL_THRESHOLD = 1 << 20;
+    private static final int MIN_CHUNK_SIZE = 1 << 18;
+
+    private final ForkJoinPool pool;
+    private final PatternCache patternCache;
+
+    public ParallelSearch() {
+        this(ForkJoinPool.commonPool(), PatternCache.shared());
+    }
+
+    public ParallelSearch(ForkJoinPool pool, PatternCache patternCache) {
+        this.pool = pool;
+        this.patternCache = patternCache;
+    }
+
+    /**
+     * Whether a search can be chunked: literal terms (optionally whole-word) on
+     * inputs large enough to be worth splitting.
+     */
+    public static boolean isChunkable(CharSequence text, String term, Set<SearchOption> options) {
+        return !options.contains(SearchOption.USE_REGEX)
+                && !term.isEmpty()
+                && text.length() >= SEQUENTIAL_THRESHOLD;
+    }
+
+    /**
+     * Append the starts of all non-overlapping matches to {@code results}, in order.
+     * Callers should check {@link #isChunkable} first; other searches run sequentially here.
+     */
+    public void findAll(CharSequence text, String term, Set<SearchOption> options, IntList results) {
+        ChunkScanner scanner = new ChunkScanner(text, term, options);
+        if (!isChunkable(text, term, options)) {
+            scanner.scan(0, text.length(), results);
+            return;
+        }
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, text.length() / (pool.getParallelism() * 4));
+        int chunkCount = (text.length() + chunkSize - 1) / chunkSize;
+        IntList[] chunks = new IntList[chunkCount];
+        pool.invoke(new ChunkTask(scanner, chunks, chunkSize, 0, chunkCount));
+
+        merge(scanner, chunks, chunkSize, results);
+    }
+
+    private static void merge(ChunkScanner scanner, IntList[] chunks, int chunkSize, IntList results) {
+        int length = scanner.text.length();
+        int termLength = scanner.term.length();
+        // End of the last accepted match; later matches must not start before it
+        int nextAllowed = 0;
+
+        for (int c = 0; c < chunks.length; c++) {
+            IntList chunk = chunks[c];
+            int i = 0;
+
+            if (!chunk.isEmpty() && chunk.get(0) < nextAllowed) {
+                // A match from the previous chunk overlaps this chunk's first matches.
+                // Search sequentially from the true position until it lands on a match
+                // the chunk also found; from there on both agree.
+                int chunkEnd = (int) Math.min(length, (long) (c + 1) * chunkSize);
+                int position = nextAllowed;
+                while (true) {
+                    int match = scanner.next(position, chunkEnd);
+                    while (i < chunk.size() && chunk.get(i) < match) i++;
+                    if (match < 0 || (i < chunk.size() && chunk.get(i) == match)) {
+                        if (match < 0) i = chunk.size();
+                        break;
+                    }
+                    results.add(match);
+                    position = match + termLength;
+                    nextAllowed = position;
+                }
+            }
+
+            for (; i < chunk.size(); i++) {
+                results.add(chunk.get(i));
+            }
+            if (!results.isEmpty()) {
+                nextAllowed = Math.max(nextAllowed, results.get(results.size() - 1) + termLength);
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ChunkTask extends RecursiveAction {
+        private final ChunkScanner scanner;
+        private final IntList[] chunks;
+        private final int chunkSize;
+        private final int from;
+        private final int to;
+
+        ChunkTask(ChunkScanner scanner, IntList[] chunks, int chunkSize, int from, int to) {
+            this.scanner = scanner;
+            this.chunks = chunks;
+            this.chunkSize = chunkSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                IntList found = new IntList();
+                int start = from * chunkSize;
+                scanner.scan(start, (int) Math.min(scanner.text.length(), (long) start + chunkSize), found);
+                chunks[from] = found;
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(scanner, chunks, chunkSize, from, mid),
+                      new ChunkTask(scanner, chunks, chunkSize, mid, to));
+        }
+    }
+
+    /**
+     * Finds matches starting in a range, using the literal matcher or, for
+     * whole-word and regex searches, the cached pattern.
+     */
+    private final class ChunkScanner {
+        final CharSequence text;
+        final String term;
+        final LiteralMatcher literal;
+        final Pattern pattern;
+        final boolean regex;
+
+        ChunkScanner(CharSequence text, String term, Set<SearchOption> options) {
+            this.text = text;
+            this.term = term;
+            this.regex = options.contains(SearchOption.USE_REGEX);
+            boolean patternSearch = regex || options.contains(SearchOption.WHOLE_WORDS_ONLY);
+            this.literal = patternSearch ? null : LiteralMatcher.of(term, options.contains(SearchOption.CASE_SENSITIVE));
+            this.pattern = patternSearch ? patternCache.get(term, options) : null;
+        }
+
+        /**
+         * Non-overlapping matches starting in [start, end), scanned greedily from {@code start}.
+         */
+        void scan(int start, int end, IntList out) {
+            if (literal != null) {
+                int to = scanLimit(end);
+                int index = start;
+                while ((index = literal.indexOf(text, index, to)) != -1) {
+                    out.add(index);
+                    index += term.length();
+                }
+                return;
+            }
+
+            Matcher m = regionMatcher(start, end);
+            try {
+                while (m.find()) {
+                    if (m.start() >= end) break;
+                    out.add(m.start());
+                }
+            } finally {
+                patternCache.release(m);
+            }
+        }
+
+        /**
+         * First match starting in [position, end), or -1.
+         */
+        int next(int position, int end) {
+            if (position >= end) return -1;
+            if (literal != null) {
+                return literal.indexOf(text, position, scanLimit(end));
+            }
+
+            Matcher m = regionMatcher(position, end);
+            try {
+                return m.find() && m.start() < end ? m.start() : -1;
+            } finally {
+                patternCache.release(m);
+            }
+        }
+
+        private int scanLimit(int end) {
+            return (int) Math.min(text.length(), (long) end + term.length() - 1);
+        }
+
+        private Matcher regionMatcher(int start, int end) {
+            Matcher m = patternCache.matcher(pattern, text);
+            // Transparent bounds let \b see the characters just outside the chunk
+            m.useTransparentBounds(true);
+            m.useAnchoringBounds(false);
+            m.region(start, regex ? text.length() : scanLimit(end));
+            return m;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.texteditor.engine;
+
+import com.texteditor.engine.SearchReplaceEngine.SearchOption;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LRU cache of compiled search patterns keyed by term and option set, plus a
+ * reusable {@link Matcher} per thread. Repeated interactive searches reuse the
+ * same compiled pattern instead of recompiling on every find-next or replace.
+ */
+public class PatternCache {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final PatternCache SHARED = new PatternCache(DEFAULT_CAPACITY);
+
+    private static final class Key {
+        final String term;
+        final Set<SearchOption> options;
+
+        Key(String term, Set<SearchOption> options) {
+            this.term = term;
+            this.options = options;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return term.equals(key.term) && options.equals(key.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(term, options);
+        }
+    }
+
+    private final Map<Key, Pattern> patterns;
+    private final ThreadLocal<Matcher> matchers = new ThreadLocal<>();
+
+    public PatternCache(int capacity) {
+        this.patterns = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Pattern> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public static PatternCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Compiled pattern for the term under the given options.
+     *
+     * @throws java.util.regex.PatternSyntaxException if USE_REGEX is set and the term is invalid
+     */
+    public Pattern get(String term, Set<SearchOption> options) {
+        Key key = new Key(term, options.isEmpty() ? EnumSet.noneOf(SearchOption.class) : EnumSet.copyOf(options));
+        synchronized (patterns) {
+            Pattern pattern = patterns.get(key);
+            if (pattern == null) {
+                pattern = compile(term, options);
+                patterns.put(key, pattern);
+            }
+            return pattern;
+        }
+    }
+
+    /**
+     * This thread's matcher, reset onto the given pattern and text.
+     * Call {@link #release(Matcher)} when done so the text is not retained.
+     */
+    public Matcher matcher(Pattern pattern, CharSequence text) {
+        Matcher matcher = matchers.get();
+        if (matcher == null || matcher.pattern() != pattern) {
+            matcher = pattern.matcher(text);
+            matchers.set(matcher);
+        } else {
+            matcher.reset(text);
+        }
+        return matcher;
+    }
+
+    public void release(Matcher matcher) {
+        matcher.reset("");
+    }
+
+    public void clear() {
+        synchronized (patterns) {
+            patterns.clear();
+        }
+    }
+
+    private static Pattern compile(String term, Set<SearchOption> options) {
+        StringBuilder pattern = new StringBuilder();
+
+        if (options.contains(SearchOption.WHOLE_WORDS_ONLY)) {
+            pattern.append("\\b");
+        }
+
+        pattern.append(options.contains(SearchOption.USE_REGEX) ? term : Pattern.quote(term));
+
+        if (options.contains(SearchOption.WHOLE_WORDS_ONLY)) {
+            pattern.append("\\b");
+        }
+
+        int flags = options.contains(SearchOption.CASE_SENSITIVE) ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+        return Pattern.compile(pattern.toString(), flags);
+    }
+}
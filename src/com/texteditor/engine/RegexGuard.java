@@ -0,0 +1,204 @@
+package com.texteditor.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs regex searches under a time and step budget so a catastrophically
+ * backtracking pattern cannot hang the editor. Searches run against an
+ * {@link InterruptibleCharSequence}, either synchronously or on a worker thread
+ * that can be cancelled, and report whatever matches were found before they
+ * stopped.
+ */
+public class RegexGuard {
+
+    public enum Status {
+        COMPLETED, TIMED_OUT, STEP_LIMIT_EXCEEDED, CANCELLED, INVALID_PATTERN
+    }
+
+    /**
+     * Limits for one search; zero means unlimited. The timeout counts only the
+     * time spent matching, not time a lazy search spends waiting to be resumed.
+     */
+    public static final class Budget {
+        public static final Budget UNLIMITED = new Budget(0, 0);
+        public static final Budget DEFAULT = new Budget(2000, 0);
+
+        private final long timeoutMillis;
+        private final long maxSteps;
+
+        public Budget(long timeoutMillis, long maxSteps) {
+            this.timeoutMillis = timeoutMillis;
+            this.maxSteps = maxSteps;
+        }
+
+        // Getters
+        public long getTimeoutMillis() { return timeoutMillis; }
+        public long getMaxSteps() { return maxSteps; }
+    }
+
+    /**
+     * Matches found by a search and why it stopped. Matches are partial unless
+     * the status is COMPLETED.
+     */
+    public static final class Result {
+        private final Status status;
+        private final MatchResultSet matches;
+
+        Result(Status status, MatchResultSet matches) {
+            this.status = status;
+            this.matches = matches;
+        }
+
+        // Getters
+        public Status getStatus() { return status; }
+        public MatchResultSet getMatches() { return matches; }
+
+        public boolean isComplete() {
+            return status == Status.COMPLETED;
+        }
+    }
+
+    /**
+     * Thrown from inside the matcher to abandon a search that ran out of budget.
+     */
+    public static final class AbortedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final Status status;
+
+        AbortedException(Status status) {
+            super("Regex search stopped: " + status, null, false, false);
+            this.status = status;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+    }
+
+    public interface Listener {
+        void onComplete(Result result);
+    }
+
+    /**
+     * Handle for a search running on the worker thread.
+     */
+    public static final class SearchTask {
+        private volatile boolean cancelled;
+        private volatile Future<Result> future;
+
+        public void cancel() {
+            cancelled = true;
+            Future<Result> running = future;
+            if (running != null) running.cancel(true);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isDone() {
+            Future<Result> running = future;
+            return running != null && running.isDone();
+        }
+
+        /**
+         * Wait for the result. A task cancelled before it produced one reports CANCELLED.
+         */
+        public Result await() throws InterruptedException {
+            try {
+                return future.get();
+            } catch (CancellationException e) {
+                return new Result(Status.CANCELLED, MatchResultSet.empty());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Regex search failed", e.getCause());
+            }
+        }
+    }
+
+    private static final RegexGuard SHARED = new RegexGuard();
+
+    private final ExecutorService executor;
+
+    public RegexGuard() {
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "regex-guard-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static RegexGuard shared() {
+        return SHARED;
+    }
+
+    /**
+     * Run the search on the calling thread.
+     */
+    public Result findAll(Pattern pattern, CharSequence text, Budget budget) {
+        return findAll(pattern, text, budget, () -> false);
+    }
+
+    /**
+     * Run the search on a worker thread. The listener, if any, is called there
+     * with the result, including the partial result of a search cancelled while
+     * running; a task cancelled before it starts never calls it.
+     */
+    public SearchTask submit(Pattern pattern, CharSequence text, Budget budget, Listener listener) {
+        SearchTask task = new SearchTask();
+        task.future = executor.submit(() -> {
+            Result result = findAll(pattern, text, budget, task::isCancelled);
+            if (listener != null) listener.onComplete(result);
+            return result;
+        });
+        return task;
+    }
+
+    /**
+     * An already finished task, e.g. for a pattern that failed to compile.
+     */
+    public static SearchTask completed(Result result, Listener listener) {
+        SearchTask task = new SearchTask();
+        task.future = CompletableFuture.completedFuture(result);
+        if (listener != null) listener.onComplete(result);
+        return task;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Result findAll(Pattern pattern, CharSequence text, Budget budget, BooleanSupplier cancelled) {
+        InterruptibleCharSequence guarded = new InterruptibleCharSequence(
+                text, budget.getTimeoutMillis() * 1_000_000L, budget.getMaxSteps(), cancelled);
+        Matcher m = pattern.matcher(guarded);
+
+        int[] bounds = new int[32];
+        int size = 0;
+        Status status = Status.COMPLETED;
+        try {
+            while (m.find()) {
+                if (size * 2 == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                }
+                bounds[size * 2] = m.start();
+                bounds[size * 2 + 1] = m.end();
+                size++;
+            }
+        } catch (AbortedException e) {
+            status = e.getStatus();
+        }
+        return new Result(status, MatchResultSet.of(bounds, size));
+    }
+}
@@ -0,0 +1,106 @@
+package com.texteditor.engine;
+
+/**
+ * Extracts a literal that every match of a regex must contain, for index
+ * prefiltering. The analysis is deliberately conservative: it only looks at
+ * top-level literal runs, drops characters made optional by a quantifier, and
+ * gives up on alternation, inline flags and escapes whose meaning it does not model.
+ */
+final class RegexLiterals {
+
+    private static final int MIN_LENGTH = 3;
+
+    private RegexLiterals() {
+    }
+
+    /**
+     * The longest required literal of at least three chars, or null if none is known.
+     */
+    static String requiredLiteral(String regex) {
+        if (regex.indexOf('|') >= 0 || regex.contains("(?")) return null;
+
+        String best = "";
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            switch (c) {
+                case '\\': {
+                    if (i + 1 >= regex.length()) return null;
+                    char escaped = regex.charAt(++i);
+                    if (Character.isLetterOrDigit(escaped)) {
+                        // Classes, anchors and control escapes end the run; escapes with
+                        // arguments or back-references are not modelled
+                        if ("xu0cpPNkQE".indexOf(escaped) >= 0 || Character.isDigit(escaped)) return null;
+                        best = longer(best, run);
+                    } else if (depth == 0) {
+                        run.append(escaped);
+                    }
+                    break;
+                }
+                case '[': {
+                    i = skipClass(regex, i);
+                    if (i < 0) return null;
+                    best = longer(best, run);
+                    break;
+                }
+                case '(':
+                    depth++;
+                    best = longer(best, run);
+                    break;
+                case ')':
+                    depth--;
+                    best = longer(best, run);
+                    break;
+                case '*':
+                case '?':
+                case '{':
+                    // The preceding char may occur zero times
+                    if (run.length() > 0) run.setLength(run.length() - 1);
+                    best = longer(best, run);
+                    if (c == '{') {
+                        i = regex.indexOf('}', i);
+                        if (i < 0) return null;
+                    }
+                    break;
+                case '+':
+                case '.':
+                case '^':
+                case '$':
+                    best = longer(best, run);
+                    break;
+                default:
+                    if (depth == 0) run.append(c);
+                    break;
+            }
+        }
+        best = longer(best, run);
+        return best.length() >= MIN_LENGTH ? best : null;
+    }
+
+    private static String longer(String best, StringBuilder run) {
+        String result = run.length() > best.length() ? run.toString() : best;
+        run.setLength(0);
+        return result;
+    }
+
+    // Index of the closing bracket of the class opened at start, or -1
+    private static int skipClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') i++;
+        if (i < regex.length() && regex.charAt(i) == ']') i++;
+        int depth = 1;
+        for (; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
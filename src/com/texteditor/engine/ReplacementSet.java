@@ -0,0 +1,135 @@
+package com.texteditor.engine;
+
+import java.util.Arrays;
+
+/**
+ * Immutable list of matches paired with the text that replaces each one, in
+ * ascending order. Literal replacements share one string; regex replacements
+ * keep their expanded group references per match.
+ */
+public final class ReplacementSet {
+
+    private static final ReplacementSet EMPTY = new ReplacementSet(new int[0], null, "", 0);
+
+    // start0, end0, start1, end1, ...
+    private final int[] bounds;
+    // Per-match replacements, or null when every match uses the same one
+    private final String[] replacements;
+    private final String replacement;
+    private final int size;
+
+    private ReplacementSet(int[] bounds, String[] replacements, String replacement, int size) {
+        this.bounds = bounds;
+        this.replacements = replacements;
+        this.replacement = replacement;
+        this.size = size;
+    }
+
+    public static ReplacementSet empty() {
+        return EMPTY;
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public int getStart(int index) {
+        checkIndex(index);
+        return bounds[index * 2];
+    }
+
+    public int getEnd(int index) {
+        checkIndex(index);
+        return bounds[index * 2 + 1];
+    }
+
+    public String getReplacement(int index) {
+        checkIndex(index);
+        return replacements == null ? replacement : replacements[index];
+    }
+
+    public MatchResultSet getMatches() {
+        return MatchResultSet.of(bounds, size);
+    }
+
+    /**
+     * Length of the text after the replacements are applied to {@code originalLength} chars.
+     */
+    public long getResultLength(int originalLength) {
+        long length = originalLength;
+        for (int i = 0; i < size; i++) {
+            length += getReplacement(i).length() - (bounds[i * 2 + 1] - bounds[i * 2]);
+        }
+        return length;
+    }
+
+    /**
+     * The text with every replacement applied, built in one pass.
+     */
+    public String applyTo(CharSequence text) {
+        if (size == 0) return text.toString();
+
+        long length = getResultLength(text.length());
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Replaced text would exceed " + Integer.MAX_VALUE + " chars");
+        }
+        StringBuilder result = new StringBuilder((int) length);
+        int copied = 0;
+        for (int i = 0; i < size; i++) {
+            result.append(text, copied, bounds[i * 2]).append(getReplacement(i));
+            copied = bounds[i * 2 + 1];
+        }
+        result.append(text, copied, text.length());
+        return result.toString();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Accumulates matches in ascending order.
+     */
+    static final class Builder {
+        private final String replacement;
+        private int[] bounds = new int[32];
+        private String[] replacements;
+        private int size;
+
+        /**
+         * @param replacement the replacement shared by every match, or null if each
+         *                    match is added with its own
+         */
+        Builder(String replacement) {
+            this.replacement = replacement;
+            if (replacement == null) replacements = new String[16];
+        }
+
+        void add(int start, int end) {
+            if (size * 2 == bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[size * 2] = start;
+            bounds[size * 2 + 1] = end;
+            size++;
+        }
+
+        void add(int start, int end, String text) {
+            if (size == replacements.length) {
+                replacements = Arrays.copyOf(replacements, replacements.length * 2);
+            }
+            replacements[size] = text;
+            add(start, end);
+        }
+
+        int size() {
+            return size;
+        }
+
+        ReplacementSet build() {
+            return size == 0 ? EMPTY : new ReplacementSet(bounds, replacements, replacement, size);
+        }
+    }
+}
@@ -1,6 +1,14 @@
 package com.texteditor.engine;
 
+import com.texteditor.model.Document;
+import com.texteditor.model.TrigramIndex;
+import com.texteditor.util.IntList;
+
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
 import java.util.regex.*;
 
 /**
@@ -12,10 +20,31 @@ public class SearchReplaceEngine {
         CASE_SENSITIVE, WHOLE_WORDS_ONLY, USE_REGEX
     }
 
+    // Matches between progress reports and cancellation checks in findReplacements
+    private static final int PROGRESS_INTERVAL = 1024;
+
     private Set<SearchOption> options;
+    private final PatternCache patternCache;
+    private final ParallelSearch parallelSearch;
+    private final RegexGuard regexGuard;
+    private RegexGuard.Budget regexBudget = RegexGuard.Budget.DEFAULT;
 
     public SearchReplaceEngine() {
-        this.options = new HashSet<>();
+        this(PatternCache.shared());
+    }
+
+    public SearchReplaceEngine(PatternCache patternCache) {
+        this.options = EnumSet.noneOf(SearchOption.class);
+        this.patternCache = patternCache;
+        this.parallelSearch = new ParallelSearch(ForkJoinPool.commonPool(), patternCache);
+        this.regexGuard = RegexGuard.shared();
+    }
+
+    /**
+     * Time and step limits applied to every USE_REGEX search and replace.
+     */
+    public void setRegexBudget(RegexGuard.Budget budget) {
+        this.regexBudget = budget;
     }
 
     public void setOption(SearchOption option, boolean enabled) {
@@ -26,85 +55,431 @@ public class SearchReplaceEngine {
         }
     }
 
-    public List<Integer> findAll(String text, String searchTerm) {
-        List<Integer> results = new ArrayList<>();
+    public boolean isOptionEnabled(SearchOption option) {
+        return options.contains(option);
+    }
+
+    /**
+     * Match start offsets. An invalid regex finds nothing.
+     *
+     * @throws RegexGuard.AbortedException if a regex exceeds the regex budget
+     */
+    public List<Integer> findAll(CharSequence text, String searchTerm) {
+        IntList results = new IntList();
+        checkComplete(findAll(text, searchTerm, results));
+        return results.asList();
+    }
+
+    /**
+     * Append match start offsets to a primitive buffer.
+     * Plain literal searches use a Boyer-Moore-Horspool matcher; regex and
+     * whole-word searches go through the cached pattern. Regex searches run
+     * under the regex budget and keep the matches found before it ran out.
+     * Returns COMPLETED, INVALID_PATTERN, or why a regex stopped early.
+     */
+    public RegexGuard.Status findAll(CharSequence text, String searchTerm, IntList results) {
+        if (isPlainLiteral()) {
+            findAllLiteral(text, searchTerm, results);
+            return RegexGuard.Status.COMPLETED;
+        }
 
         try {
-            String pattern = buildPattern(searchTerm);
-            Pattern p = Pattern.compile(pattern);
-            Matcher m = p.matcher(text);
+            Pattern p = patternCache.get(searchTerm, options);
+            if (options.contains(SearchOption.USE_REGEX)) {
+                RegexGuard.Result result = regexGuard.findAll(p, text, regexBudget);
+                MatchResultSet matches = result.getMatches();
+                for (int i = 0; i < matches.size(); i++) {
+                    results.add(matches.getStart(i));
+                }
+                return result.getStatus();
+            }
 
-            while (m.find()) {
-                results.add(m.start());
+            Matcher m = patternCache.matcher(p, text);
+            try {
+                while (m.find()) {
+                    results.add(m.start());
+                }
+            } finally {
+                patternCache.release(m);
             }
+            return RegexGuard.Status.COMPLETED;
         } catch (PatternSyntaxException e) {
-            // Invalid regex pattern
-            if (!options.contains(SearchOption.USE_REGEX)) {
-                results = findAllLiteral(text, searchTerm);
-            }
+            return RegexGuard.Status.INVALID_PATTERN;
+        }
+    }
+
+    /**
+     * Lazy cursor over start/end pairs of matches, following the same rules as
+     * {@link #findAll(CharSequence, String, IntList)}. Nothing is found until the
+     * cursor is advanced. An invalid regex yields an empty cursor, and a regex
+     * cursor throws {@link RegexGuard.AbortedException} once the regex budget is spent;
+     * only the time spent inside {@link MatchCursor#next()} is charged to it.
+     */
+    public MatchCursor cursor(CharSequence text, String searchTerm) {
+        if (isPlainLiteral()) {
+            return MatchCursor.literal(text, LiteralMatcher.of(searchTerm, options.contains(SearchOption.CASE_SENSITIVE)));
+        }
+
+        Pattern p = compileOrNull(searchTerm);
+        if (p == null) return MatchCursor.empty();
+        // The cursor may outlive this call, so it gets its own matcher instead of the per-thread one
+        if (!options.contains(SearchOption.USE_REGEX)) return MatchCursor.regex(p.matcher(text));
+        InterruptibleCharSequence input = guarded(text, () -> false);
+        return MatchCursor.regex(p.matcher(input), input);
+    }
+
+    /**
+     * Run the search on a worker thread under the regex budget. The task can be
+     * cancelled, and the listener receives the matches found so far along with
+     * why the search stopped. Intended for USE_REGEX searches started from the UI.
+     */
+    public RegexGuard.SearchTask findAllGuarded(CharSequence text, String searchTerm, RegexGuard.Listener listener) {
+        Pattern p = compileOrNull(searchTerm);
+        if (p == null) {
+            return RegexGuard.completed(new RegexGuard.Result(RegexGuard.Status.INVALID_PATTERN, MatchResultSet.empty()), listener);
         }
+        return regexGuard.submit(p, text, regexBudget, listener);
+    }
+
+    /**
+     * Parallel variant of {@link #findAll(CharSequence, String, IntList)} for large
+     * texts. Literal and whole-word searches are split into chunks on the common
+     * fork-join pool; regex searches and small inputs fall back to the sequential
+     * search. The text must be safe to read from several threads, such as a
+     * String or a document snapshot. Returns the status as the sequential search does.
+     */
+    public RegexGuard.Status findAllParallel(CharSequence text, String searchTerm, IntList results) {
+        if (!ParallelSearch.isChunkable(text, searchTerm, options)) {
+            return findAll(text, searchTerm, results);
+        }
+        parallelSearch.findAll(text, searchTerm, options, results);
+        return RegexGuard.Status.COMPLETED;
+    }
 
-        return results;
+    /**
+     * Match start offsets in a document.
+     *
+     * @throws RegexGuard.AbortedException if a regex exceeds the regex budget
+     */
+    public List<Integer> findAll(Document document, String searchTerm) {
+        IntList results = new IntList();
+        checkComplete(findAll(document, searchTerm, results));
+        return results.asList();
     }
 
-    private List<Integer> findAllLiteral(String text, String searchTerm) {
-        List<Integer> results = new ArrayList<>();
-        String searchText = options.contains(SearchOption.CASE_SENSITIVE) ? text : text.toLowerCase();
-        String term = options.contains(SearchOption.CASE_SENSITIVE) ? searchTerm : searchTerm.toLowerCase();
+    /**
+     * Search a document, using its trigram index when enabled to run the matcher
+     * only on blocks that can contain a match. For regex searches the index is
+     * only a whole-document yes/no check: a document lacking a literal the
+     * pattern requires is skipped, and any other document is scanned in full,
+     * since a regex match is not confined to the blocks around its literal.
+     * Returns the status as {@link #findAll(CharSequence, String, IntList)} does.
+     */
+    public RegexGuard.Status findAll(Document document, String searchTerm, IntList results) {
+        CharSequence text = document.getText();
+        TrigramIndex index = document.getTrigramIndex();
+        if (index == null) {
+            return findAll(text, searchTerm, results);
+        }
 
-        int index = 0;
-        while ((index = searchText.indexOf(term, index)) != -1) {
-            results.add(index);
-            index += term.length();
+        if (options.contains(SearchOption.USE_REGEX)) {
+            String literal = RegexLiterals.requiredLiteral(searchTerm);
+            if (literal == null || mayContain(text, index, literal)) {
+                return findAll(text, searchTerm, results);
+            }
+            return compileOrNull(searchTerm) == null ? RegexGuard.Status.INVALID_PATTERN : RegexGuard.Status.COMPLETED;
         }
 
-        return results;
+        List<int[]> ranges = new ArrayList<>();
+        index.findCandidates(searchTerm, ranges);
+        if (isPlainLiteral()) {
+            findAllLiteral(text, searchTerm, ranges, results);
+        } else {
+            findAllWholeWords(text, searchTerm, ranges, results);
+        }
+        return RegexGuard.Status.COMPLETED;
+    }
+
+    private boolean mayContain(CharSequence text, TrigramIndex index, String literal) {
+        List<int[]> ranges = new ArrayList<>();
+        index.findCandidates(literal, ranges);
+        // Case-insensitive, so inline flags in the pattern cannot cause a miss
+        LiteralMatcher matcher = LiteralMatcher.of(literal, false);
+        for (int[] range : ranges) {
+            if (matcher.indexOf(text, range[0], rangeEnd(text, range, literal)) >= 0) return true;
+        }
+        return false;
     }
 
-    private String buildPattern(String searchTerm) {
-        StringBuilder pattern = new StringBuilder();
+    // Matches are non-overlapping across ranges too: a match running past a range
+    // end moves the start of the next search
+    private void findAllLiteral(CharSequence text, String searchTerm, List<int[]> ranges, IntList results) {
+        LiteralMatcher matcher = LiteralMatcher.of(searchTerm, options.contains(SearchOption.CASE_SENSITIVE));
+        if (matcher.length() == 0) return;
 
-        if (options.contains(SearchOption.WHOLE_WORDS_ONLY)) {
-            pattern.append("\\b");
+        int from = 0;
+        for (int[] range : ranges) {
+            from = Math.max(from, range[0]);
+            int to = rangeEnd(text, range, searchTerm);
+            int index;
+            while ((index = matcher.indexOf(text, from, to)) != -1) {
+                results.add(index);
+                from = index + matcher.length();
+            }
         }
+    }
 
-        pattern.append(options.contains(SearchOption.USE_REGEX) ? searchTerm : Pattern.quote(searchTerm));
+    private void findAllWholeWords(CharSequence text, String searchTerm, List<int[]> ranges, IntList results) {
+        Matcher m = patternCache.matcher(patternCache.get(searchTerm, options), text);
+        m.useTransparentBounds(true);
+        m.useAnchoringBounds(false);
+        try {
+            int from = 0;
+            for (int[] range : ranges) {
+                from = Math.max(from, range[0]);
+                int to = rangeEnd(text, range, searchTerm);
+                if (from >= to) continue;
 
-        if (options.contains(SearchOption.WHOLE_WORDS_ONLY)) {
-            pattern.append("\\b");
+                m.region(from, to);
+                while (m.find()) {
+                    results.add(m.start());
+                    from = m.end();
+                }
+            }
+        } finally {
+            patternCache.release(m);
         }
+    }
 
-        int flags = options.contains(SearchOption.CASE_SENSITIVE) ? 0 : Pattern.CASE_INSENSITIVE;
-        Pattern.compile(pattern.toString(), flags);
+    // A match starting inside the range may run term length - 1 chars past its end
+    private static int rangeEnd(CharSequence text, int[] range, String term) {
+        return (int) Math.min(text.length(), (long) range[1] + term.length() - 1);
+    }
 
-        return pattern.toString();
+    private void findAllLiteral(CharSequence text, String searchTerm, IntList results) {
+        LiteralMatcher.of(searchTerm, options.contains(SearchOption.CASE_SENSITIVE)).findAll(text, results);
     }
 
+    /**
+     * Replace the first match; the text is returned unchanged if there is none.
+     *
+     * @throws RegexGuard.AbortedException if a regex exceeds the regex budget
+     */
     public String replaceFirst(String text, String searchTerm, String replacement) {
-        List<Integer> matches = findAll(text, searchTerm);
-        if (matches.isEmpty()) return text;
+        Pattern p = compileOrNull(searchTerm);
+        if (p == null) return text;
+
+        CharSequence input = guarded(text);
+        Matcher m = patternCache.matcher(p, input);
+        try {
+            if (!m.find()) return text;
+
+            StringBuilder result = new StringBuilder(text.length() + replacement.length());
+            pause(input);
+            m.appendReplacement(result, replacementFor(replacement));
+            m.appendTail(result);
+            return result.toString();
+        } finally {
+            patternCache.release(m);
+        }
+    }
+
+    /**
+     * Replace every match in a single pass using the matcher's real match bounds.
+     * With USE_REGEX the replacement may reference groups ($1, ${name}); otherwise
+     * it is inserted literally.
+     *
+     * @throws RegexGuard.AbortedException if a regex exceeds the regex budget
+     */
+    public String replaceAll(CharSequence text, String searchTerm, String replacement) {
+        Pattern p = compileOrNull(searchTerm);
+        if (p == null) return text.toString();
+
+        CharSequence input = guarded(text);
+        Matcher m = patternCache.matcher(p, input);
+        try {
+            String template = replacementFor(replacement);
+            StringBuilder result = new StringBuilder(text.length());
+            while (m.find()) {
+                // Copying text into the result is not charged to the regex budget
+                pause(input);
+                m.appendReplacement(result, template);
+                resume(input);
+            }
+            pause(input);
+            m.appendTail(result);
+            return result.toString();
+        } finally {
+            patternCache.release(m);
+        }
+    }
+
+    /**
+     * Every match paired with its replacement, without building the new text, so
+     * the caller can apply the edits itself. Group references in a USE_REGEX
+     * replacement are expanded per match. {@code cancelled} is polled while the
+     * search runs and {@code progress} receives the offset searched up to every
+     * {@value #PROGRESS_INTERVAL} matches. Large literal and whole-word searches
+     * are split across the fork-join pool, so the text must be safe to read from
+     * several threads, such as a String or a document snapshot.
+     *
+     * @throws RegexGuard.AbortedException if cancelled, or if a regex exceeds the regex budget
+     */
+    public ReplacementSet findReplacements(CharSequence text, String searchTerm, String replacement,
+                                           BooleanSupplier cancelled, IntConsumer progress) {
+        Pattern p = compileOrNull(searchTerm);
+        if (p == null) return ReplacementSet.empty();
+
+        if (ParallelSearch.isChunkable(text, searchTerm, options)) {
+            return chunkedReplacements(text, searchTerm, replacement, cancelled, progress);
+        }
+
+        if (isPlainLiteral()) {
+            ReplacementSet.Builder builder = new ReplacementSet.Builder(replacement);
+            MatchCursor cursor = MatchCursor.literal(text, LiteralMatcher.of(searchTerm, options.contains(SearchOption.CASE_SENSITIVE)));
+            while (cursor.next()) {
+                builder.add(cursor.start(), cursor.end());
+                if (builder.size() % PROGRESS_INTERVAL == 0) {
+                    if (cancelled.getAsBoolean()) throw new RegexGuard.AbortedException(RegexGuard.Status.CANCELLED);
+                    progress.accept(cursor.end());
+                }
+            }
+            return builder.build();
+        }
+
+        String template = replacementFor(replacement);
+        // Only a template with group references differs between matches
+        boolean expand = options.contains(SearchOption.USE_REGEX)
+                && (template.indexOf('$') >= 0 || template.indexOf('\\') >= 0);
+        ReplacementSet.Builder builder = new ReplacementSet.Builder(expand ? null : replacement);
+        InterruptibleCharSequence input = guarded(text, cancelled);
+        Matcher m = patternCache.matcher(p, input);
+        try {
+            StringBuilder scratch = new StringBuilder();
+            int appended = 0;
+            while (m.find()) {
+                if (expand) {
+                    // appendReplacement copies the gap since the previous match first
+                    scratch.setLength(0);
+                    input.pause();
+                    m.appendReplacement(scratch, template);
+                    input.resume();
+                    builder.add(m.start(), m.end(), scratch.substring(m.start() - appended));
+                    appended = m.end();
+                } else {
+                    builder.add(m.start(), m.end());
+                }
+                if (builder.size() % PROGRESS_INTERVAL == 0) {
+                    progress.accept(m.end());
+                }
+            }
+            return builder.build();
+        } finally {
+            patternCache.release(m);
+        }
+    }
+
+    // Every match has the term's length and the same replacement; the chunks
+    // cannot be interrupted, so cancellation is checked once they are searched
+    private ReplacementSet chunkedReplacements(CharSequence text, String searchTerm, String replacement,
+                                               BooleanSupplier cancelled, IntConsumer progress) {
+        IntList starts = new IntList();
+        findAllParallel(text, searchTerm, starts);
+        if (cancelled.getAsBoolean()) throw new RegexGuard.AbortedException(RegexGuard.Status.CANCELLED);
+        progress.accept(text.length());
 
-        int matchStart = matches.get(0);
-        int matchEnd = matchStart + getMatchLength(text, searchTerm, matchStart);
+        ReplacementSet.Builder builder = new ReplacementSet.Builder(replacement);
+        for (int i = 0; i < starts.size(); i++) {
+            int start = starts.get(i);
+            builder.add(start, start + searchTerm.length());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Streaming variant that writes the replaced text to a sink, e.g. a Writer.
+     * Returns the number of replacements made.
+     *
+     * @throws IOException if the sink fails, or if a regex exceeds the regex budget
+     *                     after part of the output was written
+     */
+    public int replaceAll(CharSequence text, String searchTerm, String replacement, Appendable out) throws IOException {
+        Pattern p = compileOrNull(searchTerm);
+        if (p == null) {
+            out.append(text);
+            return 0;
+        }
 
-        return text.substring(0, matchStart) + replacement + text.substring(matchEnd);
+        CharSequence input = guarded(text);
+        Matcher m = patternCache.matcher(p, input);
+        try {
+            String template = replacementFor(replacement);
+            // Holds only the gap since the previous match plus its replacement, flushed per match
+            StringBuilder pending = new StringBuilder();
+            int count = 0;
+            while (m.find()) {
+                pause(input);
+                m.appendReplacement(pending, template);
+                out.append(pending);
+                pending.setLength(0);
+                resume(input);
+                count++;
+            }
+            pause(input);
+            m.appendTail(pending);
+            out.append(pending);
+            return count;
+        } catch (RegexGuard.AbortedException e) {
+            throw new IOException("Replace of " + searchTerm + " abandoned: " + e.getStatus(), e);
+        } finally {
+            patternCache.release(m);
+        }
     }
 
-    public String replaceAll(String text, String searchTerm, String replacement) {
-        String result = text;
-        List<Integer> matches = findAll(text, searchTerm);
+    /**
+     * Regex input is wrapped so the matcher gives up once the budget is spent;
+     * quoted literals cannot backtrack and are matched directly.
+     */
+    private CharSequence guarded(CharSequence text) {
+        if (!options.contains(SearchOption.USE_REGEX)) return text;
+        return guarded(text, () -> false);
+    }
+
+    // Cancellable input, guarded even for quoted literals so a long scan can be stopped
+    private InterruptibleCharSequence guarded(CharSequence text, BooleanSupplier cancelled) {
+        boolean regex = options.contains(SearchOption.USE_REGEX);
+        return new InterruptibleCharSequence(text, regex ? regexBudget.getTimeoutMillis() * 1_000_000L : 0,
+                regex ? regexBudget.getMaxSteps() : 0, cancelled);
+    }
 
-        // Replace from end to start to maintain indices
-        for (int i = matches.size() - 1; i >= 0; i--) {
-            int matchStart = matches.get(i);
-            int matchEnd = matchStart + getMatchLength(text, searchTerm, matchStart);
-            result = result.substring(0, matchStart) + replacement + result.substring(matchEnd);
+    private static void pause(CharSequence input) {
+        if (input instanceof InterruptibleCharSequence) ((InterruptibleCharSequence) input).pause();
+    }
+
+    private static void resume(CharSequence input) {
+        if (input instanceof InterruptibleCharSequence) ((InterruptibleCharSequence) input).resume();
+    }
+
+    // The boxed variants cannot carry a status, so a partial result is an error
+    private static void checkComplete(RegexGuard.Status status) {
+        if (status != RegexGuard.Status.COMPLETED && status != RegexGuard.Status.INVALID_PATTERN) {
+            throw new RegexGuard.AbortedException(status);
         }
+    }
 
-        return result;
+    private boolean isPlainLiteral() {
+        return !options.contains(SearchOption.USE_REGEX) && !options.contains(SearchOption.WHOLE_WORDS_ONLY);
+    }
+
+    private Pattern compileOrNull(String searchTerm) {
+        try {
+            return patternCache.get(searchTerm, options);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
     }
 
-    private int getMatchLength(String text, String searchTerm, int position) {
-        return text.substring(position).indexOf(searchTerm) + searchTerm.length();
+    private String replacementFor(String replacement) {
+        return options.contains(SearchOption.USE_REGEX) ? replacement : Matcher.quoteReplacement(replacement);
     }
 }
@@ -0,0 +1,137 @@
+package com.texteditor.engine;
+
+import com.texteditor.engine.SearchReplaceEngine.SearchOption;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Runs replace-all searches off the UI thread. Each request works on an immutable
+ * snapshot of the text and produces a {@link ReplacementSet} the caller applies in
+ * one batched edit, after checking the document still matches the snapshot.
+ * Requests run one at a time on a dedicated thread; starting a new one cancels
+ * the one in progress.
+ */
+public class SearchService {
+
+    // Background replaces can be stopped by the user, so regexes get more time than interactive ones
+    private static final RegexGuard.Budget REGEX_BUDGET = new RegexGuard.Budget(30_000, 0);
+
+    /**
+     * Called on the search thread.
+     */
+    public interface Listener {
+        void onProgress(Task task, int searched, int total);
+
+        /**
+         * The replacements are empty unless the status is COMPLETED.
+         */
+        void onComplete(Task task, RegexGuard.Status status, ReplacementSet replacements);
+    }
+
+    /**
+     * Handle for one replace-all request.
+     */
+    public static final class Task {
+        private final CharSequence snapshot;
+        private volatile boolean cancelled;
+
+        Task(CharSequence snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * The text the replacements refer to.
+         */
+        public CharSequence getSnapshot() {
+            return snapshot;
+        }
+    }
+
+    private final ExecutorService executor;
+    private Task current;
+
+    public SearchService() {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-service");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Find every match of {@code term} in {@code snapshot} and its replacement.
+     * The snapshot must not change while the task runs.
+     */
+    public synchronized Task replaceAll(CharSequence snapshot, String term, String replacement,
+                                        Set<SearchOption> options, Listener listener) {
+        cancel();
+        Task task = new Task(snapshot);
+        current = task;
+        executor.execute(() -> run(task, term, replacement, options, listener));
+        return task;
+    }
+
+    public synchronized void cancel() {
+        if (current != null) {
+            current.cancel();
+            current = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private void run(Task task, String term, String replacement, Set<SearchOption> options, Listener listener) {
+        if (task.isCancelled()) {
+            listener.onComplete(task, RegexGuard.Status.CANCELLED, ReplacementSet.empty());
+            return;
+        }
+
+        try {
+            PatternCache.shared().get(term, options);
+        } catch (PatternSyntaxException e) {
+            listener.onComplete(task, RegexGuard.Status.INVALID_PATTERN, ReplacementSet.empty());
+            return;
+        }
+
+        SearchReplaceEngine engine = new SearchReplaceEngine();
+        for (SearchOption option : options) {
+            engine.setOption(option, true);
+        }
+        engine.setRegexBudget(REGEX_BUDGET);
+
+        // A flat copy is far cheaper to match against than a tree-backed snapshot
+        String text = task.getSnapshot().toString();
+        int total = text.length();
+        listener.onProgress(task, 0, total);
+
+        RegexGuard.Status status = RegexGuard.Status.COMPLETED;
+        ReplacementSet replacements = ReplacementSet.empty();
+        try {
+            replacements = engine.findReplacements(text, term, replacement, task::isCancelled,
+                    searched -> listener.onProgress(task, searched, total));
+        } catch (RegexGuard.AbortedException e) {
+            status = e.getStatus();
+        }
+        if (task.isCancelled()) {
+            status = RegexGuard.Status.CANCELLED;
+            replacements = ReplacementSet.empty();
+        } else if (status == RegexGuard.Status.COMPLETED) {
+            listener.onProgress(task, total, total);
+        }
+        listener.onComplete(task, status, replacements);
+    }
+}
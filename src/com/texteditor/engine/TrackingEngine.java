@@ -2,6 +2,7 @@ package com.texteditor.engine;
 
 import com.texteditor.model.ChangeTracker;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages change tracking and document modification tracking.
@@ -9,10 +10,12 @@ import java.util.*;
 public class TrackingEngine {
 
     private List<ChangeTracker> changes;
+    private List<ChangeTracker> changesView;
     private boolean trackingEnabled;
 
     public TrackingEngine() {
-        this.changes = new ArrayList<>();
+        this.changes = new CopyOnWriteArrayList<>();
+        this.changesView = Collections.unmodifiableList(changes);
         this.trackingEnabled = false;
     }
 
@@ -63,8 +66,11 @@ public class TrackingEngine {
         }
     }
 
+    /**
+     * Read-only live view; iteration sees a consistent snapshot and allocates no copy.
+     */
     public List<ChangeTracker> getAllChanges() {
-        return new ArrayList<>(changes);
+        return changesView;
     }
 
     public List<ChangeTracker> getPendingChanges() {
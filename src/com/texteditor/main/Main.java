@@ -1,24 +1,37 @@
 package com.texteditor.main;
 
 import com.texteditor.engine.FormattingEngine;
+import com.texteditor.engine.HtmlExporter;
+import com.texteditor.engine.RegexGuard;
+import com.texteditor.engine.ReplacementSet;
 import com.texteditor.engine.SearchReplaceEngine;
+import com.texteditor.engine.SearchService;
 import com.texteditor.engine.TrackingEngine;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.geometry.Insets;
 import javafx.geometry.Rectangle2D;
 import javafx.stage.Screen;
 import javafx.scene.paint.Color;
-import org.fxmisc.richtext.InlineCssTextArea;
+import org.fxmisc.richtext.model.PlainTextChange;
+import org.fxmisc.richtext.model.StyledDocument;
 import com.texteditor.manager.*;
 import com.texteditor.model.*;
+import com.texteditor.ui.FindInFilesDialog;
+import com.texteditor.ui.LargeFileViewer;
+import com.texteditor.ui.ReplacementEdit;
+import com.texteditor.ui.RichTextArea;
 import com.texteditor.util.*;
+import java.io.File;
 import java.io.IOException;
+import java.util.EnumSet;
 
 /**
  * Advanced Text Editor - FXML Edition (Complete Version - FIXED)
@@ -46,7 +59,7 @@ public class Main extends Application {
     private static final double MIN_HEIGHT = 700;
 
     // ============= UI COMPONENTS =============
-    private InlineCssTextArea textArea;
+    private RichTextArea textArea;
     private Label statusLabel;
     private Label trackingStatusLabel;
     private ComboBox<String> fontFamilyCombo;
@@ -63,11 +76,16 @@ public class Main extends Application {
     private PreferencesManager preferencesManager;
     private FormattingEngine formattingEngine;
     private SearchReplaceEngine searchEngine;
+    private SearchService searchService;
+    private HtmlExporter htmlExporter;
     private TrackingEngine trackingEngine;
 
     // ============= STATE =============
     private boolean trackingMode = false;
     private FXMLLoader fxmlLoader;
+    private SearchService.Task replaceTask;
+    private String statusPrefix = "Ready";
+    private boolean mirroringSuspended;
 
     // ============= APPLICATION LIFECYCLE =============
 
@@ -159,10 +177,11 @@ public class Main extends Application {
         root.setTop(createTopSection());
 
         // Text editor
-        textArea = new InlineCssTextArea();
+        textArea = new RichTextArea();
         textArea.setWrapText(true);
         textArea.setStyle("-fx-font-family: 'Consolas'; -fx-font-size: 12; -fx-padding: 15;");
-        textArea.textProperty().addListener((obs, oldText, newText) -> updateStatusBar());
+        textArea.plainTextChanges().subscribe(this::applyTextChange);
+        textArea.caretPositionProperty().addListener((obs, oldPos, newPos) -> updateStatusBar());
         textArea.selectionProperty().addListener((obs, oldSel, newSel) -> updateFormattingToolbar());
 
         ScrollPane scrollPane = new ScrollPane(textArea);
@@ -219,18 +238,24 @@ public class Main extends Application {
         MenuItem openItem = new MenuItem("Open");
         openItem.setOnAction(e -> handleOpen());
 
+        MenuItem openLargeItem = new MenuItem("Open Large File (Read-Only)");
+        openLargeItem.setOnAction(e -> handleOpenLargeFile());
+
         MenuItem saveItem = new MenuItem("Save");
         saveItem.setOnAction(e -> handleSave());
 
         MenuItem saveAsItem = new MenuItem("Save As");
         saveAsItem.setOnAction(e -> handleSaveAs());
 
+        MenuItem exportHtmlItem = new MenuItem("Export as HTML");
+        exportHtmlItem.setOnAction(e -> handleExportHtml());
+
         MenuItem exitItem = new MenuItem("Exit");
         exitItem.setOnAction(e -> System.exit(0));
 
         fileMenu.getItems().addAll(
-                newItem, openItem, new SeparatorMenuItem(),
-                saveItem, saveAsItem, new SeparatorMenuItem(), exitItem
+                newItem, openItem, openLargeItem, new SeparatorMenuItem(),
+                saveItem, saveAsItem, exportHtmlItem, new SeparatorMenuItem(), exitItem
         );
 
         return fileMenu;
@@ -263,10 +288,13 @@ public class Main extends Application {
         MenuItem findItem = new MenuItem("Find & Replace");
         findItem.setOnAction(e -> showFindReplaceDialog());
 
+        MenuItem findInFilesItem = new MenuItem("Find in Files");
+        findInFilesItem.setOnAction(e -> new FindInFilesDialog().show());
+
         editMenu.getItems().addAll(
                 undoItem, redoItem, new SeparatorMenuItem(),
                 cutItem, copyItem, pasteItem, new SeparatorMenuItem(),
-                selectAllItem, new SeparatorMenuItem(), findItem
+                selectAllItem, new SeparatorMenuItem(), findItem, findInFilesItem
         );
 
         return editMenu;
@@ -531,16 +559,7 @@ public class Main extends Application {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        // Get selected text
-        String selectedText = textArea.getSelectedText();
-
-        // Delete selected text
-        textArea.deleteText(start, end);
-
-        // Insert with bold style
-        textArea.insertText(start, selectedText);
-        textArea.setStyle(start, start + selectedText.length(), "-fx-font-weight: bold;");
-
+        textArea.restyle(start, end, style -> style.with(TextStyle.BOLD, true));
         boldBtn.setSelected(true);
     }
 
@@ -554,11 +573,7 @@ public class Main extends Application {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        String selectedText = textArea.getSelectedText();
-        textArea.deleteText(start, end);
-        textArea.insertText(start, selectedText);
-        textArea.setStyle(start, start + selectedText.length(), "-fx-font-style: italic;");
-
+        textArea.restyle(start, end, style -> style.with(TextStyle.ITALIC, true));
         italicBtn.setSelected(true);
     }
 
@@ -572,11 +587,7 @@ public class Main extends Application {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        String selectedText = textArea.getSelectedText();
-        textArea.deleteText(start, end);
-        textArea.insertText(start, selectedText);
-        textArea.setStyle(start, start + selectedText.length(), "-fx-underline: true;");
-
+        textArea.restyle(start, end, style -> style.with(TextStyle.UNDERLINE, true));
         underlineBtn.setSelected(true);
     }
 
@@ -590,11 +601,7 @@ public class Main extends Application {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        String selectedText = textArea.getSelectedText();
-        textArea.deleteText(start, end);
-        textArea.insertText(start, selectedText);
-        textArea.setStyle(start, start + selectedText.length(), "-fx-strikethrough: true;");
-
+        textArea.restyle(start, end, style -> style.with(TextStyle.STRIKETHROUGH, true));
         strikeBtn.setSelected(true);
     }
 
@@ -608,10 +615,7 @@ public class Main extends Application {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        String selectedText = textArea.getSelectedText();
-        textArea.deleteText(start, end);
-        textArea.insertText(start, selectedText);
-        textArea.setStyle(start, start + selectedText.length(), "-fx-font-family: '" + family + "';");
+        textArea.restyle(start, end, style -> style.withFontFamily(family));
     }
 
     /**
@@ -624,10 +628,7 @@ public class Main extends Application {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        String selectedText = textArea.getSelectedText();
-        textArea.deleteText(start, end);
-        textArea.insertText(start, selectedText);
-        textArea.setStyle(start, start + selectedText.length(), "-fx-font-size: " + size + ";");
+        textArea.restyle(start, end, style -> style.withFontSize(size));
     }
 
     /**
@@ -640,11 +641,8 @@ public class Main extends Application {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        String selectedText = textArea.getSelectedText();
         String colorHex = toHexString(color);
-        textArea.deleteText(start, end);
-        textArea.insertText(start, selectedText);
-        textArea.setStyle(start, start + selectedText.length(), "-fx-fill: " + colorHex + ";");
+        textArea.restyle(start, end, style -> style.withTextColor(colorHex));
     }
 
     /**
@@ -657,11 +655,8 @@ public class Main extends Application {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        String selectedText = textArea.getSelectedText();
         String colorHex = toHexString(color);
-        textArea.deleteText(start, end);
-        textArea.insertText(start, selectedText);
-        textArea.setStyle(start, start + selectedText.length(), "-fx-background-color: " + colorHex + ";");
+        textArea.restyle(start, end, style -> style.withBackgroundColor(colorHex));
     }
 
     /**
@@ -712,14 +707,13 @@ public class Main extends Application {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        String selectedText = textArea.getSelectedText();
         int fontSize = level == 1 ? 28 : level == 2 ? 24 : 20;
-        String style = "-fx-font-family: 'Arial'; -fx-font-size: " + fontSize +
-                "; -fx-font-weight: bold; -fx-fill: #1565C0;";
-
-        textArea.deleteText(start, end);
-        textArea.insertText(start, selectedText);
-        textArea.setStyle(start, start + selectedText.length(), style);
+        textArea.beginFormatting()
+                .setFontFamily(start, end, "Arial")
+                .setFontSize(start, end, fontSize)
+                .setFlag(start, end, TextStyle.BOLD, true)
+                .setTextColor(start, end, "#1565C0")
+                .commit();
     }
 
     /**
@@ -739,13 +733,12 @@ public class Main extends Application {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        String selectedText = textArea.getSelectedText();
-        String style = "-fx-font-family: 'Georgia'; -fx-font-size: 14; " +
-                "-fx-font-style: italic; -fx-fill: #616161;";
-
-        textArea.deleteText(start, end);
-        textArea.insertText(start, selectedText);
-        textArea.setStyle(start, start + selectedText.length(), style);
+        textArea.beginFormatting()
+                .setFontFamily(start, end, "Georgia")
+                .setFontSize(start, end, 14)
+                .setFlag(start, end, TextStyle.ITALIC, true)
+                .setTextColor(start, end, "#616161")
+                .commit();
     }
 
     /**
@@ -761,8 +754,10 @@ public class Main extends Application {
     // ============= FILE OPERATIONS =============
 
     private void handleNew() {
-        if (textArea != null) textArea.clear();
+        cancelReplace();
+        // Switch first, so clearing the editor cannot empty the previous document
         if (documentManager != null) documentManager.createNewDocument();
+        if (textArea != null) withoutMirroring(textArea::clear);
         updateStatusBar();
     }
 
@@ -770,11 +765,23 @@ public class Main extends Application {
         showAlert("Open File", "File chooser dialog coming soon");
     }
 
+    private void handleOpenLargeFile() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Open Large File (Read-Only)");
+        File file = chooser.showOpenDialog(null);
+        if (file == null) return;
+
+        try {
+            new LargeFileViewer(file.toPath()).show();
+        } catch (IOException e) {
+            showAlert("Open Large File", "Could not open file: " + e.getMessage());
+        }
+    }
+
     private void handleSave() {
         if (documentManager != null && textArea != null) {
             Document doc = documentManager.getCurrentDocument();
             if (doc != null) {
-                doc.setContent(textArea.getText());
                 documentManager.saveDocument(doc);
                 showAlert("Save", "Document saved successfully");
             }
@@ -785,6 +792,31 @@ public class Main extends Application {
         showAlert("Save As", "Save as dialog coming soon");
     }
 
+    private void handleExportHtml() {
+        if (textArea == null) return;
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export as HTML");
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("HTML Files", "*" + Constants.HTML_FILE_EXTENSION));
+        File file = chooser.showSaveDialog(null);
+        if (file == null) return;
+
+        // Immutable view of the content, so editing can go on while the file is written
+        StyledDocument<String, String, TextStyle> snapshot = textArea.subDocument(0, textArea.getLength());
+        statusPrefix = "Exporting";
+        updateStatusBar();
+        htmlExporter.exportAsync(snapshot, file.getName(), file.toPath(), (path, error) -> Platform.runLater(() -> {
+            statusPrefix = "Ready";
+            updateStatusBar();
+            if (error != null) {
+                showAlert("Export", "Could not export: " + error.getMessage());
+            } else {
+                showAlert("Export", "Document exported to " + path.getFileName());
+            }
+        }));
+    }
+
     // ============= DIALOG METHODS =============
 
     private void showFindReplaceDialog() {
@@ -817,10 +849,7 @@ public class Main extends Application {
                 String find = findField.getText();
                 String replace = replaceField.getText();
                 if (!find.isEmpty()) {
-                    String newText = textArea.getText().replace(find, replace);
-                    textArea.clear();
-                    textArea.appendText(newText);
-                    showAlert("Replace Complete", "Text replaced successfully");
+                    startReplaceAll(find, replace);
                 }
             }
             return null;
@@ -829,6 +858,65 @@ public class Main extends Application {
         dialog.showAndWait();
     }
 
+    /**
+     * Replace every match and build the new content on the search thread, then swap
+     * it in, provided the document was not edited in the meantime
+     */
+    private void startReplaceAll(String find, String replace) {
+        Document doc = documentManager.getCurrentDocument();
+        if (doc == null) return;
+
+        Rope base = doc.snapshot();
+        boolean compact = doc.isCompactStorage() || doc.isCompacted();
+        boolean indexed = doc.getTrigramIndex() != null;
+        replaceTask = searchService.replaceAll(base, find, replace,
+                EnumSet.of(SearchReplaceEngine.SearchOption.CASE_SENSITIVE), new SearchService.Listener() {
+                    @Override
+                    public void onProgress(SearchService.Task task, int searched, int total) {
+                        int percent = total == 0 ? 100 : (int) ((long) searched * 100 / total);
+                        Platform.runLater(() -> {
+                            if (task == replaceTask) {
+                                statusPrefix = "Replacing " + percent + "%";
+                                updateStatusBar();
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onComplete(SearchService.Task task, RegexGuard.Status status, ReplacementSet replacements) {
+                        // Built here, on the search thread, so the FX thread only swaps it in
+                        Document.Content replaced = status == RegexGuard.Status.COMPLETED && !replacements.isEmpty()
+                                ? new Document.Content(replacements.applyTo(base), compact, indexed)
+                                : null;
+                        Platform.runLater(() -> {
+                            if (task != replaceTask) return;
+                            replaceTask = null;
+                            statusPrefix = "Ready";
+
+                            if (status != RegexGuard.Status.COMPLETED) {
+                                showAlert("Replace", "Replace stopped before it finished: " + status);
+                            } else if (replacements.isEmpty()) {
+                                showAlert("Replace Complete", "No matches found");
+                            } else if (documentManager.getCurrentDocument() != doc || !doc.setContent(base, replaced)) {
+                                showAlert("Replace", "The document changed during the search; nothing was replaced");
+                            } else {
+                                withoutMirroring(() -> ReplacementEdit.apply(textArea, replacements));
+                                showAlert("Replace Complete", replacements.size() + " occurrence(s) replaced");
+                            }
+                            updateStatusBar();
+                        });
+                    }
+                });
+    }
+
+    private void cancelReplace() {
+        if (replaceTask != null) {
+            replaceTask.cancel();
+            replaceTask = null;
+            statusPrefix = "Ready";
+        }
+    }
+
     private void showColorPickerDialog() {
         ColorPicker picker = new ColorPicker(Color.BLACK);
         Dialog<Color> dialog = new Dialog<>();
@@ -852,11 +940,14 @@ public class Main extends Application {
     private void showStatistics() {
         if (textArea == null) return;
 
-        String text = textArea.getText();
-        int words = text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
-        int chars = text.length();
-        int lines = text.isEmpty() ? 1 : text.split("\n", -1).length;
-        int paragraphs = text.isEmpty() ? 1 : text.split("\n\n", -1).length;
+        Document doc = documentManager.getCurrentDocument();
+        if (doc == null) return;
+
+        Document.DocumentStats stats = doc.getStatistics();
+        int words = stats.words;
+        int chars = stats.characters;
+        int lines = stats.lines;
+        int paragraphs = stats.paragraphs;
 
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Document Statistics");
@@ -878,7 +969,7 @@ public class Main extends Application {
         TextArea infoArea = new TextArea(
                 "Document created today\n" +
                         "Status: Unsaved\n" +
-                        "Size: " + (textArea != null ? textArea.getText().length() : 0) + " characters"
+                        "Size: " + (textArea != null ? textArea.getLength() : 0) + " characters"
         );
         infoArea.setEditable(false);
         infoArea.setPrefHeight(200);
@@ -931,11 +1022,13 @@ public class Main extends Application {
     // ============= UTILITY METHODS =============
 
     private void initializeManagers() {
-        documentManager = new DocumentManager(new FileHandlerImpl());
+        documentManager = new DocumentManager(new NioFileHandler());
         styleManager = new StyleManager();
         preferencesManager = new PreferencesManager(Constants.PREFERENCES_FILE);
         formattingEngine = new FormattingEngine();
         searchEngine = new SearchReplaceEngine();
+        searchService = new SearchService();
+        htmlExporter = new HtmlExporter(formattingEngine);
         trackingEngine = new TrackingEngine();
         documentManager.createNewDocument();
     }
@@ -960,22 +1053,58 @@ public class Main extends Application {
     }
 
     private void updateStatusBar() {
-        if (textArea == null) return;
+        if (textArea == null || documentManager == null) return;
 
-        String text = textArea.getText();
-        int words = text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
-        int chars = text.length();
-        int lines = text.isEmpty() ? 1 : text.split("\n", -1).length;
+        Document doc = documentManager.getCurrentDocument();
+        if (doc == null) return;
+
+        Document.DocumentStats stats = doc.getStatistics();
+        int words = stats.words;
+        int chars = stats.characters;
+        int lines = stats.lines;
+        LineIndex lineIndex = doc.getLineIndex();
+        int caret = textArea.getCaretPosition();
 
         if (statusLabel != null) {
             statusLabel.setText(
-                    "Ready | Words: " + words +
+                    statusPrefix + " | Ln " + formattingEngine.getLineFromOffset(lineIndex, caret) +
+                            ", Col " + (formattingEngine.getColumnFromOffset(lineIndex, caret) + 1) +
+                            " | Words: " + words +
                             " | Characters: " + chars +
                             " | Lines: " + lines
             );
         }
     }
 
+    /**
+     * Change the editor without mirroring the change into the current document,
+     * for edits the document has already been brought up to date with.
+     */
+    private void withoutMirroring(Runnable edit) {
+        mirroringSuspended = true;
+        try {
+            edit.run();
+        } finally {
+            mirroringSuspended = false;
+        }
+    }
+
+    /**
+     * Mirror an editor delta into the current document
+     */
+    private void applyTextChange(PlainTextChange change) {
+        if (documentManager == null || mirroringSuspended) return;
+
+        // A pending replace refers to the text before this edit
+        cancelReplace();
+
+        Document doc = documentManager.getCurrentDocument();
+        if (doc != null) {
+            doc.replaceText(change.getPosition(), change.getRemovalEnd(), change.getInserted());
+        }
+        updateStatusBar();
+    }
+
     private void toggleTrackingMode() {
         trackingMode = !trackingMode;
         if (trackingStatusLabel != null) {
@@ -999,28 +1128,3 @@ public class Main extends Application {
         launch(args);
     }
 }
-
-// ============= FILE HANDLER =============
-
-class FileHandlerImpl implements com.texteditor.util.FileHandler {
-    @Override
-    public Document loadDocument(String filePath) {
-        return new Document(filePath);
-    }
-
-    @Override
-    public boolean saveDocument(Document document) {
-        System.out.println("Saving: " + document.getFilePath());
-        return true;
-    }
-
-    @Override
-    public boolean deleteFile(String filePath) {
-        return false;
-    }
-
-    @Override
-    public boolean fileExists(String filePath) {
-        return new java.io.File(filePath).exists();
-    }
-}
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.texteditor.manager;
 
 import com.texteditor.model.Document;
 import com.texteditor.util.FileHandler;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -14,13 +15,19 @@ public class DocumentManager {
     private Document currentDocument;
     private FileHandler fileHandler;
     private List<String> recentFiles;
+
+    // Read-only views over the copy-on-write lists above
+    private List<Document> openDocumentsView;
+    private List<String> recentFilesView;
     private Stack<Document> documentHistory;
 
     // Constructor with dependency injection
     public DocumentManager(FileHandler fileHandler) {
         this.openDocuments = new CopyOnWriteArrayList<>();
         this.fileHandler = fileHandler;
-        this.recentFiles = new ArrayList<>();
+        this.recentFiles = new CopyOnWriteArrayList<>();
+        this.openDocumentsView = Collections.unmodifiableList(openDocuments);
+        this.recentFilesView = Collections.unmodifiableList(recentFiles);
         this.documentHistory = new Stack<>();
     }
 
@@ -44,6 +51,17 @@ public class DocumentManager {
         return doc;
     }
 
+    /**
+     * Register an empty document for a file whose content the caller streams in.
+     */
+    public Document createDocumentForFile(String filePath) {
+        Document doc = createNewDocument();
+        doc.setFilePath(filePath);
+        doc.setTitle(Paths.get(filePath).getFileName().toString());
+        addToRecentFiles(filePath);
+        return doc;
+    }
+
     public boolean saveDocument(Document document) {
         boolean success = fileHandler.saveDocument(document);
         if (success && document.getFilePath() != null) {
@@ -83,14 +101,14 @@ public class DocumentManager {
     }
 
     public List<Document> getOpenDocuments() {
-        return new ArrayList<>(openDocuments);
+        return openDocumentsView;
     }
 
     public List<String> getRecentFiles() {
-        return new ArrayList<>(recentFiles);
+        return recentFilesView;
     }
 
-    private void addToRecentFiles(String filePath) {
+    private synchronized void addToRecentFiles(String filePath) {
         recentFiles.remove(filePath);
         recentFiles.add(0, filePath);
         if (recentFiles.size() > 10) {
@@ -104,7 +122,7 @@ public class DocumentManager {
         StringBuilder content = new StringBuilder();
 
         for (Document doc : documentsToMerge) {
-            content.append(doc.getContent()).append("\n\n");
+            content.append(doc.getText()).append("\n\n");
         }
 
         merged.setContent(content.toString());
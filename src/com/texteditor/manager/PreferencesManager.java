@@ -33,6 +33,7 @@ public class PreferencesManager {
         preferences.put("editorFontSize", 12);
         preferences.put("autoSave", true);
         preferences.put("autoSaveInterval", 10);
+        preferences.put("compactStorage", false);
     }
 
     private void initializeTheme() {
@@ -114,4 +115,16 @@ public class PreferencesManager {
     public void setFontScale(int scale) {
         setPreference("fontScale", scale);
     }
+
+    public boolean isCompactStorage() {
+        Object value = preferences.getOrDefault("compactStorage", false);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return false;
+    }
+
+    public void setCompactStorage(boolean enabled) {
+        setPreference("compactStorage", enabled);
+    }
 }
\ No newline at end of file
@@ -1,27 +1,46 @@
 package com.texteditor.manager;
 
 import com.texteditor.model.Style;
+import com.texteditor.model.StyleInterner;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages custom styles and style sets.
+ * A style name resolves through a cascade: custom styles first, then the active
+ * style set, then the built-in styles. Resolved styles are frozen, interned
+ * instances held in a cache that is invalidated by bumping a version on every
+ * change, so lookups from rendering or export threads neither allocate nor race.
  */
 public class StyleManager {
-    private Map<String, Style> customStyles;
-    private Map<String, Style> builtInStyles;
-    private Style currentStyle;
-    private String currentStyleSet;
-
-    // Predefined style sets
-    private static final Map<String, Map<String, Style>> STYLE_SETS = new HashMap<>();
+    private final Map<String, Style> customStyles;
+    private final Map<String, Style> builtInStyles;
+    private final Map<String, Map<String, Style>> styleSets;
+    private final StyleInterner interner;
+    private volatile Style currentStyle;
+    private volatile String currentStyleSet;
+
+    // Resolved-style cache; entries from an older version are recomputed on lookup
+    private final ConcurrentHashMap<String, Resolved> resolved = new ConcurrentHashMap<>();
+    private volatile long version;
+
+    private static final class Resolved {
+        final Style style;
+        final long version;
+
+        Resolved(Style style, long version) {
+            this.style = style;
+            this.version = version;
+        }
+    }
 
     public StyleManager() {
-        this.customStyles = new HashMap<>();
-        this.builtInStyles = initializeBuiltInStyles();
-        this.currentStyle = builtInStyles.get("Normal");
+        this.interner = StyleInterner.shared();
+        this.customStyles = new ConcurrentHashMap<>();
+        this.builtInStyles = Collections.unmodifiableMap(initializeBuiltInStyles());
+        this.styleSets = Collections.unmodifiableMap(initializeStyleSets());
         this.currentStyleSet = "Light";
-        initializeStyleSets();
+        this.currentStyle = builtInStyles.get("Normal");
     }
 
     private Map<String, Style> initializeBuiltInStyles() {
@@ -40,48 +59,85 @@ public class StyleManager {
         Style code = new Style("Code", "Courier New", 10);
         code.setBackgroundColor("#F0F0F0");
 
-        styles.put("Normal", normalStyle);
-        styles.put("Heading 1", heading1);
-        styles.put("Heading 2", heading2);
-        styles.put("Quote", quote);
-        styles.put("Code", code);
+        styles.put("Normal", interner.intern(normalStyle));
+        styles.put("Heading 1", interner.intern(heading1));
+        styles.put("Heading 2", interner.intern(heading2));
+        styles.put("Quote", interner.intern(quote));
+        styles.put("Code", interner.intern(code));
 
         return styles;
     }
 
-    private void initializeStyleSets() {
+    private Map<String, Map<String, Style>> initializeStyleSets() {
+        Map<String, Map<String, Style>> sets = new HashMap<>();
+
         // Light Style Set
-        Map<String, Style> lightSet = new HashMap<>(builtInStyles);
-        STYLE_SETS.put("Light", lightSet);
+        sets.put("Light", builtInStyles);
 
         // Professional Style Set
         Map<String, Style> professionalSet = new HashMap<>();
         Style profNormal = new Style("Normal", "Calibri", 11);
         Style profHeading = new Style("Heading 1", "Calibri", 16);
         profHeading.setBold(true);
-        professionalSet.put("Normal", profNormal);
-        professionalSet.put("Heading 1", profHeading);
-        STYLE_SETS.put("Professional", professionalSet);
+        professionalSet.put("Normal", interner.intern(profNormal));
+        professionalSet.put("Heading 1", interner.intern(profHeading));
+        sets.put("Professional", Collections.unmodifiableMap(professionalSet));
 
         // Academic Style Set
         Map<String, Style> academicSet = new HashMap<>();
         Style acadNormal = new Style("Normal", "Times New Roman", 12);
-        academicSet.put("Normal", acadNormal);
-        STYLE_SETS.put("Academic", academicSet);
+        academicSet.put("Normal", interner.intern(acadNormal));
+        sets.put("Academic", Collections.unmodifiableMap(academicSet));
+
+        return sets;
     }
 
     // Custom style management
-    public void createCustomStyle(String name, Style style) {
-        style.setName(name);
-        customStyles.put(name, style);
+
+    /**
+     * Store a custom style under {@code name}. The style is copied, so the
+     * caller's instance is left unchanged and may be edited further.
+     */
+    public synchronized void createCustomStyle(String name, Style style) {
+        Style named = style.copy();
+        named.setName(name);
+        customStyles.put(name, interner.intern(named));
+        invalidate();
     }
 
-    public void deleteCustomStyle(String name) {
-        customStyles.remove(name);
+    public synchronized void deleteCustomStyle(String name) {
+        if (customStyles.remove(name) != null) {
+            invalidate();
+        }
     }
 
+    /**
+     * The resolved style for {@code name}, or null if no level of the cascade defines it.
+     * The returned style is frozen; use {@link Style#copy()} to derive from it.
+     */
     public Style getStyle(String name) {
-        return customStyles.getOrDefault(name, builtInStyles.get(name));
+        long current = version;
+        Resolved cached = resolved.get(name);
+        if (cached != null && cached.version == current) {
+            return cached.style;
+        }
+
+        Style style = resolve(name);
+        // A concurrent change bumps the version, so a stale entry is never served
+        resolved.put(name, new Resolved(style, current));
+        return style;
+    }
+
+    private Style resolve(String name) {
+        Style style = customStyles.get(name);
+        if (style == null) {
+            Map<String, Style> styleSet = styleSets.get(currentStyleSet);
+            style = styleSet != null ? styleSet.get(name) : null;
+        }
+        if (style == null) {
+            style = builtInStyles.get(name);
+        }
+        return style;
     }
 
     public void applyStyle(String styleName) {
@@ -94,6 +150,8 @@ public class StyleManager {
     public List<String> getAllStyleNames() {
         Set<String> allNames = new HashSet<>();
         allNames.addAll(builtInStyles.keySet());
+        Map<String, Style> styleSet = styleSets.get(currentStyleSet);
+        if (styleSet != null) allNames.addAll(styleSet.keySet());
         allNames.addAll(customStyles.keySet());
         return new ArrayList<>(allNames);
     }
@@ -102,17 +160,33 @@ public class StyleManager {
         return new ArrayList<>(customStyles.keySet());
     }
 
-    public void applyStyleSet(String setName) {
-        if (STYLE_SETS.containsKey(setName)) {
+    /**
+     * Make {@code setName} the active style set. Built-in styles are not changed;
+     * the set only takes precedence over them when names are resolved.
+     */
+    public synchronized void applyStyleSet(String setName) {
+        if (styleSets.containsKey(setName) && !setName.equals(currentStyleSet)) {
             currentStyleSet = setName;
-            Map<String, Style> styleSet = STYLE_SETS.get(setName);
-            builtInStyles.putAll(styleSet);
+            invalidate();
         }
     }
 
     public List<String> getAvailableStyleSets() {
-        return new ArrayList<>(STYLE_SETS.keySet());
+        return new ArrayList<>(styleSets.keySet());
     }
 
     public Style getCurrentStyle() { return currentStyle; }
+
+    public String getCurrentStyleSet() { return currentStyleSet; }
+
+    /**
+     * Incremented whenever a resolved style may have changed.
+     */
+    public long getVersion() { return version; }
+
+    // Called with the lock held; the map changes happen before the version bump
+    private void invalidate() {
+        version++;
+        resolved.clear();
+    }
 }
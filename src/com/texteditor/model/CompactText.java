@@ -0,0 +1,108 @@
+package com.texteditor.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Immutable one-byte-per-char text kept off-heap.
+ * Holds Latin-1 content in direct {@link ByteBuffer} chunks behind a
+ * {@link CharSequence} adapter, so a large mostly-ASCII document costs one byte
+ * per character outside the Java heap instead of a heap String. Text with
+ * characters above U+00FF cannot be stored compactly.
+ */
+public final class CompactText implements CharSequence {
+
+    private static final int CHUNK_SHIFT = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final ByteBuffer[] chunks;
+    private final int length;
+
+    private CompactText(ByteBuffer[] chunks, int length) {
+        this.chunks = chunks;
+        this.length = length;
+    }
+
+    /**
+     * Encode text as Latin-1, or return null if it contains wider characters.
+     */
+    public static CompactText encode(CharSequence text) {
+        int length = text.length();
+        ByteBuffer[] chunks = allocate(length);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c > 0xFF) return null;
+            chunks[i >>> CHUNK_SHIFT].put(i & CHUNK_MASK, (byte) c);
+        }
+        return new CompactText(chunks, length);
+    }
+
+    /**
+     * Read a file straight into off-heap chunks without decoding it through a String.
+     * Returns null if the file is not pure ASCII (and so not trivially UTF-8 compatible)
+     * or too large for a single document.
+     */
+    public static CompactText readAscii(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) return null;
+
+            ByteBuffer[] chunks = allocate((int) size);
+            for (ByteBuffer chunk : chunks) {
+                while (chunk.hasRemaining()) {
+                    if (channel.read(chunk) < 0) break;
+                }
+                chunk.flip();
+                for (int i = 0; i < chunk.limit(); i++) {
+                    if (chunk.get(i) < 0) return null;
+                }
+            }
+            return new CompactText(chunks, (int) size);
+        }
+    }
+
+    private static ByteBuffer[] allocate(int length) {
+        int count = (length + CHUNK_MASK) >>> CHUNK_SHIFT;
+        ByteBuffer[] chunks = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(Math.min(CHUNK_SIZE, length - (i << CHUNK_SHIFT)));
+        }
+        return chunks;
+    }
+
+    // CharSequence view
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return (char) (chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + "), length " + length);
+        }
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = charAt(i);
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+}
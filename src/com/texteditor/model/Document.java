@@ -1,8 +1,13 @@
 package com.texteditor.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a document with full metadata and content management.
@@ -12,7 +17,11 @@ public class Document implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private String id;
-    private String content;
+    private transient PieceTable text;
+    private transient volatile Rope snapshot;
+    private transient LineIndex lineIndex;
+    private transient TextStatistics textStatistics;
+    private transient TrigramIndex trigramIndex;
     private String filePath;
     private String author;
     private LocalDateTime createdDate;
@@ -21,20 +30,33 @@ public class Document implements Serializable {
     private Map<String, String> metadata;
     private List<Comment> comments;
     private List<String> changeHistory;
+
+    // Read-only views handed to callers; reads are thread-safe and allocate nothing
+    private Map<String, String> metadataView;
+    private List<Comment> commentsView;
+    private List<String> changeHistoryView;
     private boolean isProtected;
     private String protectionPassword;
     private String currentStyle;
+    private boolean compactStorage;
+    private transient boolean compacted;
 
     // Constructors
     public Document() {
         this.id = UUID.randomUUID().toString();
-        this.content = "";
+        this.text = new PieceTable();
+        this.snapshot = Rope.EMPTY;
+        this.lineIndex = new LineIndex();
+        this.textStatistics = new TextStatistics();
         this.author = System.getProperty("user.name");
         this.createdDate = LocalDateTime.now();
         this.modifiedDate = LocalDateTime.now();
-        this.metadata = new HashMap<>();
-        this.comments = new ArrayList<>();
-        this.changeHistory = new ArrayList<>();
+        this.metadata = new ConcurrentHashMap<>();
+        this.comments = new CopyOnWriteArrayList<>();
+        this.changeHistory = new CopyOnWriteArrayList<>();
+        this.metadataView = Collections.unmodifiableMap(metadata);
+        this.commentsView = Collections.unmodifiableList(comments);
+        this.changeHistoryView = Collections.unmodifiableList(changeHistory);
         this.isProtected = false;
         this.title = "Untitled Document";
     }
@@ -47,11 +69,151 @@ public class Document implements Serializable {
     // Getters and Setters with encapsulation
     public String getId() { return id; }
 
-    public String getContent() { return content; }
+    /**
+     * Copies the full text into a new String; prefer {@link #getText()} for reads.
+     */
+    public String getContent() { return text.toString(); }
+
+    /**
+     * Live read-only view of the content, backed by the piece table.
+     */
+    public CharSequence getText() { return text; }
+
+    /**
+     * Immutable version of the content that is safe to read from any thread.
+     * Costs O(1) and shares structure with the live document.
+     */
+    public Rope snapshot() { return snapshot; }
+
+    public LineIndex getLineIndex() { return lineIndex; }
 
+    /**
+     * Replace the content. With compact storage enabled, Latin-1 text is moved
+     * off-heap and the String can be collected.
+     */
     public void setContent(String content) {
-        this.content = content;
-        this.modifiedDate = LocalDateTime.now();
+        CompactText compact = compactStorage ? CompactText.encode(content) : null;
+        resetContent(compact != null ? compact : content);
+        setModifiedDate();
+    }
+
+    public void setContent(CompactText content) {
+        resetContent(content);
+        setModifiedDate();
+    }
+
+    /**
+     * Install {@code content}, built on another thread from text derived from
+     * {@code base}, unless the document was edited after that snapshot was taken.
+     * Only the pointers are swapped, so this is cheap on the UI thread.
+     */
+    public boolean setContent(Rope base, Content content) {
+        if (snapshot != base) return false;
+
+        install(content);
+        setModifiedDate();
+        return true;
+    }
+
+    private void resetContent(CharSequence content) {
+        install(new Content(content, trigramIndex != null));
+    }
+
+    private void install(Content content) {
+        this.text = new PieceTable(content.storage);
+        this.snapshot = content.snapshot;
+        this.lineIndex = content.lineIndex;
+        this.textStatistics = content.textStatistics;
+        this.trigramIndex = content.trigramIndex;
+        this.compacted = content.storage instanceof CompactText;
+    }
+
+    /**
+     * Build a trigram index that searches use to skip blocks which cannot match.
+     * Worth enabling for large documents that are searched repeatedly; it costs
+     * 2 KB per 8K chars of text and rehashes one block per edit.
+     */
+    public void enableTrigramIndex() {
+        if (trigramIndex == null) {
+            trigramIndex = new TrigramIndex(text);
+        }
+    }
+
+    /**
+     * Adopt {@code index}, built from {@code indexed} on another thread, unless
+     * the document was edited after that snapshot was taken.
+     */
+    public boolean enableTrigramIndex(Rope indexed, TrigramIndex index) {
+        if (snapshot != indexed) return false;
+
+        trigramIndex = index;
+        return true;
+    }
+
+    public void disableTrigramIndex() { trigramIndex = null; }
+
+    /**
+     * The trigram index, or null if it is not enabled.
+     */
+    public TrigramIndex getTrigramIndex() { return trigramIndex; }
+
+    /**
+     * Re-encode the current content into compact storage, e.g. once a streamed
+     * load has finished. Returns false if the text is not Latin-1. Encoding reads
+     * every character; to keep it off the UI thread, encode a {@link #snapshot()}
+     * elsewhere and hand the result to {@link #compact(Rope, CompactText)}.
+     */
+    public boolean compact() {
+        Rope current = snapshot;
+        CompactText compact = CompactText.encode(current);
+        return compact != null && compact(current, compact);
+    }
+
+    /**
+     * Move the content into {@code compact}, an encoding of {@code encoded}, unless
+     * the document was edited after that snapshot was taken. Only the storage
+     * changes: the line index, statistics and trigram index are kept as they are.
+     */
+    public boolean compact(Rope encoded, CompactText compact) {
+        if (snapshot != encoded) return false;
+
+        this.text = new PieceTable(compact);
+        this.snapshot = Rope.of(compact);
+        this.compacted = true;
+        return true;
+    }
+
+    public boolean isCompactStorage() { return compactStorage; }
+
+    /**
+     * Whether the content is held in compact storage, by setting or by {@link #compact()}.
+     */
+    public boolean isCompacted() { return compacted; }
+
+    public void setCompactStorage(boolean compactStorage) { this.compactStorage = compactStorage; }
+
+    // Incremental editing - cost is logarithmic in the piece count, not the text size
+    public void insertText(int offset, String inserted) {
+        replaceText(offset, offset, inserted);
+    }
+
+    public void deleteText(int start, int end) {
+        replaceText(start, end, "");
+    }
+
+    public void replaceText(int start, int end, String replacement) {
+        CharSequence removed = text.subSequence(start, end);
+        String leading = text.subSequence(Math.max(start - 2, 0), start).toString();
+        String trailing = text.subSequence(end, Math.min(end + 2, text.length())).toString();
+
+        text.replace(start, end, replacement);
+        snapshot = snapshot.replace(start, end, replacement);
+        lineIndex.update(start, removed, replacement);
+        textStatistics.update(leading, removed, replacement, trailing);
+        if (trigramIndex != null) {
+            trigramIndex.update(text, start, end - start, replacement.length());
+        }
+        setModifiedDate();
     }
 
     public String getFilePath() { return filePath; }
@@ -72,20 +234,20 @@ public class Document implements Serializable {
 
     public void setTitle(String title) { this.title = title; }
 
-    public Map<String, String> getMetadata() { return new HashMap<>(metadata); }
+    public Map<String, String> getMetadata() { return metadataView; }
 
     public void addMetadata(String key, String value) {
         metadata.put(key, value);
         setModifiedDate();
     }
 
-    public List<Comment> getComments() { return new ArrayList<>(comments); }
+    public List<Comment> getComments() { return commentsView; }
 
     public void addComment(Comment comment) {
         comments.add(comment);
     }
 
-    public List<String> getChangeHistory() { return new ArrayList<>(changeHistory); }
+    public List<String> getChangeHistory() { return changeHistoryView; }
 
     public void addToChangeHistory(String change) {
         changeHistory.add(change);
@@ -106,21 +268,25 @@ public class Document implements Serializable {
 
     public void setCurrentStyle(String style) { this.currentStyle = style; }
 
-    // Document Statistics
+    // Document Statistics - all O(1), maintained incrementally by replaceText
     public int getWordCount() {
-        return content.trim().split("\\s+").length;
+        return textStatistics.getWordCount();
     }
 
     public int getCharacterCount() {
-        return content.length();
+        return text.length();
     }
 
     public int getCharacterCountWithoutSpaces() {
-        return content.replaceAll("\\s+", "").length();
+        return textStatistics.getNonWhitespaceCount();
     }
 
     public int getLineCount() {
-        return content.split("\n").length;
+        return lineIndex.getLineCount();
+    }
+
+    public int getParagraphCount() {
+        return textStatistics.getParagraphCount();
     }
 
     public DocumentStats getStatistics() {
@@ -129,29 +295,80 @@ public class Document implements Serializable {
                 getCharacterCount(),
                 getCharacterCountWithoutSpaces(),
                 getLineCount(),
+                getParagraphCount(),
                 createdDate,
                 modifiedDate,
                 author
         );
     }
 
+    // Serialization - the piece table is written out as plain text
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(text.toString());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        String content = (String) in.readObject();
+        this.text = new PieceTable(content);
+        this.snapshot = Rope.of(content);
+        this.lineIndex = new LineIndex(content);
+        this.textStatistics = new TextStatistics(content);
+    }
+
+    /**
+     * Storage and indexes for a new content, built away from the UI thread and
+     * installed with {@link Document#setContent(Rope, Content)}.
+     */
+    public static final class Content {
+        private final CharSequence storage;
+        private final Rope snapshot;
+        private final LineIndex lineIndex;
+        private final TextStatistics textStatistics;
+        private final TrigramIndex trigramIndex;
+
+        /**
+         * Reads all of {@code text}. Latin-1 text is moved off-heap if {@code compact}
+         * is set, and a trigram index is built if {@code indexed} is set.
+         */
+        public Content(String text, boolean compact, boolean indexed) {
+            this(compact ? compactOrPlain(text) : text, indexed);
+        }
+
+        private Content(CharSequence storage, boolean indexed) {
+            this.storage = storage;
+            this.snapshot = Rope.of(storage);
+            this.lineIndex = new LineIndex(storage);
+            this.textStatistics = new TextStatistics(storage);
+            this.trigramIndex = indexed ? new TrigramIndex(storage) : null;
+        }
+
+        private static CharSequence compactOrPlain(String text) {
+            CompactText compact = CompactText.encode(text);
+            return compact != null ? compact : text;
+        }
+    }
+
     // Inner class for statistics
     public static class DocumentStats {
         public final int words;
         public final int characters;
         public final int charactersWithoutSpaces;
         public final int lines;
+        public final int paragraphs;
         public final LocalDateTime createdDate;
         public final LocalDateTime modifiedDate;
         public final String author;
 
         public DocumentStats(int words, int characters, int charactersWithoutSpaces,
-                             int lines, LocalDateTime createdDate, LocalDateTime modifiedDate,
+                             int lines, int paragraphs, LocalDateTime createdDate, LocalDateTime modifiedDate,
                              String author) {
             this.words = words;
             this.characters = characters;
             this.charactersWithoutSpaces = charactersWithoutSpaces;
             this.lines = lines;
+            this.paragraphs = paragraphs;
             this.createdDate = createdDate;
             this.modifiedDate = modifiedDate;
             this.author = author;
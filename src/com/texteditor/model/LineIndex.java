@@ -0,0 +1,185 @@
+package com.texteditor.model;
+
+import java.util.Arrays;
+
+/**
+ * Line-start index maintained from edit deltas.
+ * Line lengths (including their terminating newline) are kept in a primitive
+ * array mirrored by a Fenwick tree, giving O(log n) offset-to-line and
+ * line-to-offset lookups. Edits that do not add or remove newlines are a single
+ * point update; edits that do are spliced in O(lines) without touching the text,
+ * or O(k log n) when they reach the last line, as streamed appends do.
+ * Lines and columns are 0-based.
+ */
+public class LineIndex {
+
+    private int[] lengths;
+    private int[] tree;
+    private int lineCount;
+
+    public LineIndex() {
+        this("");
+    }
+
+    public LineIndex(CharSequence text) {
+        int[] initial = new int[16];
+        int count = 0;
+        int lineStart = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                if (count == initial.length) initial = Arrays.copyOf(initial, count * 2);
+                initial[count++] = i + 1 - lineStart;
+                lineStart = i + 1;
+            }
+        }
+        if (count == initial.length) initial = Arrays.copyOf(initial, count + 1);
+        initial[count++] = text.length() - lineStart;
+        rebuild(initial, count);
+    }
+
+    // Queries
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getTextLength() {
+        return prefixSum(lineCount);
+    }
+
+    public int getLineOfOffset(int offset) {
+        if (offset < 0) {
+            throw new IndexOutOfBoundsException("offset " + offset);
+        }
+        // Fenwick descent: number of leading lines whose total length is <= offset
+        int position = 0;
+        int remaining = offset;
+        for (int step = Integer.highestOneBit(Math.max(lineCount, 1)); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= lineCount && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return Math.min(position, lineCount - 1);
+    }
+
+    public int getColumnOfOffset(int offset) {
+        return offset - getLineStart(getLineOfOffset(offset));
+    }
+
+    public int getLineStart(int line) {
+        checkLine(line);
+        return prefixSum(line);
+    }
+
+    public int getLineEnd(int line) {
+        checkLine(line);
+        return prefixSum(line) + lengths[line];
+    }
+
+    // Delta maintenance
+
+    /**
+     * Apply an edit that replaced {@code removed} at {@code position} with {@code inserted}.
+     */
+    public void update(int position, CharSequence removed, CharSequence inserted) {
+        int removedBreaks = countBreaks(removed);
+        int insertedBreaks = countBreaks(inserted);
+        int first = getLineOfOffset(position);
+
+        if (removedBreaks == 0 && insertedBreaks == 0) {
+            add(first, inserted.length() - removed.length());
+            return;
+        }
+
+        int last = first + removedBreaks;
+        int head = position - getLineStart(first);
+        int tail = getLineEnd(last) - position - removed.length();
+
+        int[] replacement = new int[insertedBreaks + 1];
+        int segmentStart = 0;
+        int line = 0;
+        for (int i = 0; i < inserted.length(); i++) {
+            if (inserted.charAt(i) == '\n') {
+                replacement[line++] = i + 1 - segmentStart;
+                segmentStart = i + 1;
+            }
+        }
+        replacement[line] = inserted.length() - segmentStart;
+        replacement[0] += head;
+        replacement[insertedBreaks] += tail;
+
+        if (last == lineCount - 1) {
+            // Edits reaching the last line (e.g. streamed appends) keep the tree prefix
+            // and extend it line by line
+            lineCount = first;
+            for (int length : replacement) {
+                append(length);
+            }
+            return;
+        }
+
+        int newCount = lineCount - (last - first + 1) + replacement.length;
+        int[] updated = newCount <= lengths.length ? lengths : Arrays.copyOf(lengths, newCount * 2);
+        System.arraycopy(lengths, last + 1, updated, first + replacement.length, lineCount - last - 1);
+        System.arraycopy(replacement, 0, updated, first, replacement.length);
+        rebuild(updated, newCount);
+    }
+
+    // Fenwick tree internals
+
+    private void rebuild(int[] lineLengths, int count) {
+        this.lengths = lineLengths;
+        this.lineCount = count;
+        this.tree = new int[lineLengths.length + 1];
+        for (int i = 1; i <= count; i++) {
+            tree[i] += lineLengths[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= count) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private void add(int line, int delta) {
+        lengths[line] += delta;
+        for (int i = line + 1; i <= lineCount; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void append(int length) {
+        if (lineCount == lengths.length) {
+            lengths = Arrays.copyOf(lengths, lineCount * 2);
+            tree = Arrays.copyOf(tree, lineCount * 2 + 1);
+        }
+        lengths[lineCount] = length;
+        lineCount++;
+        // A Fenwick node covers (i - lowbit(i), i], which ends at the new element
+        int i = lineCount;
+        tree[i] = length + prefixSum(i - 1) - prefixSum(i - (i & -i));
+    }
+
+    private int prefixSum(int lines) {
+        int sum = 0;
+        for (int i = lines; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private static int countBreaks(CharSequence text) {
+        int breaks = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') breaks++;
+        }
+        return breaks;
+    }
+
+    private void checkLine(int line) {
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("line " + line + ", line count " + lineCount);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.texteditor.model;
+
+/**
+ * Piece-table text store backing {@link Document}.
+ * The original text is kept in a read-only buffer and every insertion is appended
+ * to a separate add buffer, so edits only rewrite the piece list and never copy
+ * the document. Exposes the current text as a {@link CharSequence}.
+ * Pieces are held in a treap ordered by position with subtree lengths, so
+ * locating, splitting and removing pieces is O(log pieces). Typing at the end of
+ * the last insertion extends that piece instead of adding a new one.
+ */
+public class PieceTable implements CharSequence {
+
+    // A contiguous slice of either the original or the add buffer, and the root
+    // of the subtree of pieces around it
+    private static final class Piece {
+        final boolean added;
+        final int start;
+        int length;
+        final int priority;
+        Piece left;
+        Piece right;
+        // Total length of this subtree
+        int weight;
+
+        Piece(boolean added, int start, int length, int priority) {
+            this.added = added;
+            this.start = start;
+            this.length = length;
+            this.priority = priority;
+            this.weight = length;
+        }
+
+        void update() {
+            weight = length + weight(left) + weight(right);
+        }
+    }
+
+    private final CharSequence original;
+    private final StringBuilder added;
+    private Piece root;
+    private int pieceCount;
+    private int length;
+    private int seed = 0x2545F491;
+
+    // Results of split
+    private Piece splitLeft;
+    private Piece splitRight;
+
+    // Last piece located by charAt, so sequential scans stay O(1) per char
+    private Piece cachedPiece;
+    private int cachedPieceStart;
+
+    public PieceTable() {
+        this("");
+    }
+
+    public PieceTable(CharSequence original) {
+        this.original = original;
+        this.added = new StringBuilder();
+        this.length = original.length();
+        if (length > 0) {
+            root = newPiece(false, 0, length);
+        }
+    }
+
+    // Editing operations
+
+    public void insert(int offset, CharSequence text) {
+        checkOffset(offset);
+        if (text.length() == 0) return;
+
+        int addStart = added.length();
+        added.append(text);
+
+        split(root, offset);
+        Piece head = splitLeft;
+        Piece tail = splitRight;
+        Piece last = rightmost(head);
+        if (last != null && last.added && last.start + last.length == addStart) {
+            // Continues the previous insertion, as typing does
+            extendRightmost(head, text.length());
+            root = merge(head, tail);
+        } else {
+            root = merge(merge(head, newPiece(true, addStart, text.length())), tail);
+        }
+        length += text.length();
+        invalidateCache();
+    }
+
+    public void delete(int start, int end) {
+        checkRange(start, end);
+        if (start == end) return;
+
+        split(root, end);
+        Piece tail = splitRight;
+        split(splitLeft, start);
+        pieceCount -= count(splitRight);
+        root = merge(splitLeft, tail);
+        length -= end - start;
+        invalidateCache();
+    }
+
+    public void replace(int start, int end, CharSequence text) {
+        delete(start, end);
+        insert(start, text);
+    }
+
+    public int getPieceCount() {
+        return pieceCount;
+    }
+
+    /**
+     * Append the range [start, end) to the given builder without
+     * materializing the whole document.
+     */
+    public void appendTo(StringBuilder target, int start, int end) {
+        checkRange(start, end);
+        appendTo(root, 0, target, start, end);
+    }
+
+    private void appendTo(Piece piece, int offset, StringBuilder target, int start, int end) {
+        if (piece == null) return;
+
+        int pieceStart = offset + weight(piece.left);
+        int pieceEnd = pieceStart + piece.length;
+        if (start < pieceStart) {
+            appendTo(piece.left, offset, target, start, end);
+        }
+        if (pieceEnd > start && pieceStart < end) {
+            int from = Math.max(start, pieceStart) - pieceStart + piece.start;
+            int to = Math.min(end, pieceEnd) - pieceStart + piece.start;
+            target.append(buffer(piece), from, to);
+        }
+        if (end > pieceEnd) {
+            appendTo(piece.right, pieceEnd, target, start, end);
+        }
+    }
+
+    // CharSequence view
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        Piece piece = cachedPiece;
+        if (piece == null || index < cachedPieceStart || index >= cachedPieceStart + piece.length) {
+            piece = root;
+            int offset = 0;
+            while (true) {
+                int pieceStart = offset + weight(piece.left);
+                if (index < pieceStart) {
+                    piece = piece.left;
+                } else if (index >= pieceStart + piece.length) {
+                    offset = pieceStart + piece.length;
+                    piece = piece.right;
+                } else {
+                    cachedPiece = piece;
+                    cachedPieceStart = pieceStart;
+                    break;
+                }
+            }
+        }
+        return buffer(piece).charAt(piece.start + index - cachedPieceStart);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        StringBuilder result = new StringBuilder(end - start);
+        appendTo(result, start, end);
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(length);
+        appendTo(result, 0, length);
+        return result.toString();
+    }
+
+    // Treap internals
+
+    private Piece newPiece(boolean added, int start, int length) {
+        // xorshift; treap priorities only need to be well spread
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        pieceCount++;
+        return new Piece(added, start, length, seed);
+    }
+
+    // Split the subtree into the pieces before and after offset, cutting the piece
+    // that contains it in two
+    private void split(Piece piece, int offset) {
+        if (piece == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+        int leftWeight = weight(piece.left);
+        if (offset <= leftWeight) {
+            split(piece.left, offset);
+            piece.left = splitRight;
+            piece.update();
+            splitRight = piece;
+        } else if (offset >= leftWeight + piece.length) {
+            split(piece.right, offset - leftWeight - piece.length);
+            piece.right = splitLeft;
+            piece.update();
+            splitLeft = piece;
+        } else {
+            int head = offset - leftWeight;
+            Piece tail = newPiece(piece.added, piece.start + head, piece.length - head);
+            Piece right = piece.right;
+            piece.length = head;
+            piece.right = null;
+            piece.update();
+            splitLeft = piece;
+            splitRight = merge(tail, right);
+        }
+    }
+
+    private static Piece merge(Piece left, Piece right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Piece rightmost(Piece piece) {
+        while (piece != null && piece.right != null) {
+            piece = piece.right;
+        }
+        return piece;
+    }
+
+    private static void extendRightmost(Piece piece, int delta) {
+        while (true) {
+            piece.weight += delta;
+            if (piece.right == null) {
+                piece.length += delta;
+                return;
+            }
+            piece = piece.right;
+        }
+    }
+
+    private static int count(Piece piece) {
+        return piece == null ? 0 : 1 + count(piece.left) + count(piece.right);
+    }
+
+    private static int weight(Piece piece) {
+        return piece == null ? 0 : piece.weight;
+    }
+
+    // Internal helpers
+
+    private CharSequence buffer(Piece piece) {
+        return piece.added ? added : original;
+    }
+
+    private void invalidateCache() {
+        cachedPiece = null;
+    }
+
+    private void checkOffset(int offset) {
+        if (offset < 0 || offset > length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length);
+        }
+    }
+
+    private void checkRange(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + "), length " + length);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.texteditor.model;
+
+/**
+ * Persistent, immutable rope of text chunks.
+ * Edits return a new rope that shares every untouched subtree with the old one,
+ * so a version can be handed to a background reader in O(1) and stays valid
+ * while the editor keeps changing the document.
+ */
+public final class Rope implements CharSequence {
+
+    public static final Rope EMPTY = new Rope(new Leaf("", 0, 0));
+
+    // Adjacent leaves at most this long are copied into one, keeping typing from fragmenting the tree
+    private static final int MERGE_THRESHOLD = 512;
+
+    private abstract static class Node {
+        final int length;
+        final int depth;
+
+        Node(int length, int depth) {
+            this.length = length;
+            this.depth = depth;
+        }
+
+        abstract char charAt(int index);
+
+        abstract void appendTo(StringBuilder target, int start, int end);
+    }
+
+    // A slice of an immutable character buffer
+    private static final class Leaf extends Node {
+        final CharSequence base;
+        final int offset;
+
+        Leaf(CharSequence base, int offset, int length) {
+            super(length, 0);
+            this.base = base;
+            this.offset = offset;
+        }
+
+        @Override
+        char charAt(int index) {
+            return base.charAt(offset + index);
+        }
+
+        @Override
+        void appendTo(StringBuilder target, int start, int end) {
+            target.append(base, offset + start, offset + end);
+        }
+    }
+
+    private static final class Branch extends Node {
+        final Node left;
+        final Node right;
+
+        Branch(Node left, Node right) {
+            super(left.length + right.length, Math.max(left.depth, right.depth) + 1);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        char charAt(int index) {
+            return index < left.length ? left.charAt(index) : right.charAt(index - left.length);
+        }
+
+        @Override
+        void appendTo(StringBuilder target, int start, int end) {
+            if (start < left.length) {
+                left.appendTo(target, start, Math.min(end, left.length));
+            }
+            if (end > left.length) {
+                right.appendTo(target, Math.max(start, left.length) - left.length, end - left.length);
+            }
+        }
+    }
+
+    private final Node root;
+
+    private Rope(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Wrap immutable text as a rope without copying it.
+     * The caller must not mutate the sequence afterwards.
+     */
+    public static Rope of(CharSequence text) {
+        return text.length() == 0 ? EMPTY : new Rope(new Leaf(text, 0, text.length()));
+    }
+
+    // Persistent editing operations - all O(log n)
+
+    public Rope insert(int offset, CharSequence text) {
+        checkRange(offset, offset);
+        if (text.length() == 0) return this;
+
+        Node inserted = new Leaf(text.toString(), 0, text.length());
+        return new Rope(join(join(prefix(root, offset), inserted), suffix(root, offset)));
+    }
+
+    public Rope delete(int start, int end) {
+        checkRange(start, end);
+        if (start == end) return this;
+
+        return new Rope(join(prefix(root, start), suffix(root, end)));
+    }
+
+    public Rope replace(int start, int end, CharSequence text) {
+        return delete(start, end).insert(start, text);
+    }
+
+    public Rope concat(Rope other) {
+        return new Rope(join(root, other.root));
+    }
+
+    public Rope subRope(int start, int end) {
+        checkRange(start, end);
+        return new Rope(suffix(prefix(root, end), start));
+    }
+
+    public int depth() {
+        return root.depth;
+    }
+
+    public void appendTo(StringBuilder target, int start, int end) {
+        checkRange(start, end);
+        if (start < end) {
+            root.appendTo(target, start, end);
+        }
+    }
+
+    // CharSequence view
+
+    @Override
+    public int length() {
+        return root.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= root.length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + root.length);
+        }
+        return root.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return subRope(start, end);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(root.length);
+        appendTo(result, 0, root.length);
+        return result.toString();
+    }
+
+    // Tree operations
+
+    private static Node prefix(Node node, int end) {
+        if (end == node.length) return node;
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            return new Leaf(leaf.base, leaf.offset, end);
+        }
+        Branch branch = (Branch) node;
+        if (end <= branch.left.length) {
+            return prefix(branch.left, end);
+        }
+        return join(branch.left, prefix(branch.right, end - branch.left.length));
+    }
+
+    private static Node suffix(Node node, int start) {
+        if (start == 0) return node;
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            return new Leaf(leaf.base, leaf.offset + start, leaf.length - start);
+        }
+        Branch branch = (Branch) node;
+        if (start >= branch.left.length) {
+            return suffix(branch.right, start - branch.left.length);
+        }
+        return join(suffix(branch.left, start), branch.right);
+    }
+
+    // AVL-style join: the result is balanced if both inputs are
+    private static Node join(Node left, Node right) {
+        if (left.length == 0) return right;
+        if (right.length == 0) return left;
+
+        if (left instanceof Leaf && right instanceof Leaf && left.length + right.length <= MERGE_THRESHOLD) {
+            StringBuilder merged = new StringBuilder(left.length + right.length);
+            left.appendTo(merged, 0, left.length);
+            right.appendTo(merged, 0, right.length);
+            return new Leaf(merged.toString(), 0, merged.length());
+        }
+
+        if (left.depth > right.depth + 1) {
+            Branch l = (Branch) left;
+            Node joined = join(l.right, right);
+            if (joined.depth <= l.left.depth + 1) {
+                return new Branch(l.left, joined);
+            }
+            Branch j = (Branch) joined;
+            if (j.right.depth >= j.left.depth) {
+                return new Branch(new Branch(l.left, j.left), j.right);
+            }
+            Branch jl = (Branch) j.left;
+            return new Branch(new Branch(l.left, jl.left), new Branch(jl.right, j.right));
+        }
+
+        if (right.depth > left.depth + 1) {
+            Branch r = (Branch) right;
+            Node joined = join(left, r.left);
+            if (joined.depth <= r.right.depth + 1) {
+                return new Branch(joined, r.right);
+            }
+            Branch j = (Branch) joined;
+            if (j.left.depth >= j.right.depth) {
+                return new Branch(j.left, new Branch(j.right, r.right));
+            }
+            Branch jr = (Branch) j.right;
+            return new Branch(new Branch(j.left, jr.left), new Branch(jr.right, r.right));
+        }
+
+        return new Branch(left, right);
+    }
+
+    private void checkRange(int start, int end) {
+        if (start < 0 || end > root.length || start > end) {
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + "), length " + root.length);
+        }
+    }
+}
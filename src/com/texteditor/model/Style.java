@@ -2,10 +2,14 @@ package com.texteditor.model;
 
 import javafx.scene.paint.Color;
 import java.io.Serializable;
+import java.util.Objects;
 
 /**
  * Represents a text style with font properties and formatting options.
  * Uses composition to manage formatting attributes.
+ * Its CSS and hash are computed once and recomputed only after a setter runs.
+ * Canonical instances handed out by {@link StyleInterner} are frozen, and their
+ * setters throw.
  */
 public class Style implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -24,6 +28,11 @@ public class Style implements Serializable {
     private int indentLevel;
     private String styleType; // "Heading1", "Body", "Quote", etc.
 
+    // Derived state, rebuilt lazily after a change
+    private transient String css;
+    private transient int hash;
+    private transient boolean frozen;
+
     // Enum for text alignment
     public enum TextAlignment {
         LEFT, CENTER, RIGHT, JUSTIFY
@@ -53,59 +62,131 @@ public class Style implements Serializable {
         this.fontSize = fontSize;
     }
 
+    /**
+     * A mutable copy, e.g. of a frozen canonical style.
+     */
+    public Style copy() {
+        Style copy = new Style(name, fontFamily, fontSize);
+        copy.bold = bold;
+        copy.italic = italic;
+        copy.underline = underline;
+        copy.strikethrough = strikethrough;
+        copy.textColor = textColor;
+        copy.backgroundColor = backgroundColor;
+        copy.alignment = alignment;
+        copy.lineSpacing = lineSpacing;
+        copy.indentLevel = indentLevel;
+        copy.styleType = styleType;
+        return copy;
+    }
+
+    public boolean isFrozen() { return frozen; }
+
+    // Called by StyleInterner on the canonical copy, which is never changed again
+    Style freeze() {
+        toCSS();
+        hashCode();
+        frozen = true;
+        return this;
+    }
+
+    private void changed() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Style '" + name + "' is shared; change a copy() instead");
+        }
+        css = null;
+        hash = 0;
+    }
+
     // Getters and Setters
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { changed(); this.name = name; }
 
     public String getFontFamily() { return fontFamily; }
-    public void setFontFamily(String fontFamily) { this.fontFamily = fontFamily; }
+    public void setFontFamily(String fontFamily) { changed(); this.fontFamily = fontFamily; }
 
     public int getFontSize() { return fontSize; }
-    public void setFontSize(int fontSize) { this.fontSize = fontSize; }
+    public void setFontSize(int fontSize) { changed(); this.fontSize = fontSize; }
 
     public boolean isBold() { return bold; }
-    public void setBold(boolean bold) { this.bold = bold; }
+    public void setBold(boolean bold) { changed(); this.bold = bold; }
 
     public boolean isItalic() { return italic; }
-    public void setItalic(boolean italic) { this.italic = italic; }
+    public void setItalic(boolean italic) { changed(); this.italic = italic; }
 
     public boolean isUnderline() { return underline; }
-    public void setUnderline(boolean underline) { this.underline = underline; }
+    public void setUnderline(boolean underline) { changed(); this.underline = underline; }
 
     public boolean isStrikethrough() { return strikethrough; }
-    public void setStrikethrough(boolean strikethrough) { this.strikethrough = strikethrough; }
+    public void setStrikethrough(boolean strikethrough) { changed(); this.strikethrough = strikethrough; }
 
     public String getTextColor() { return textColor; }
-    public void setTextColor(String color) { this.textColor = color; }
+    public void setTextColor(String color) { changed(); this.textColor = color; }
 
     public String getBackgroundColor() { return backgroundColor; }
-    public void setBackgroundColor(String color) { this.backgroundColor = color; }
+    public void setBackgroundColor(String color) { changed(); this.backgroundColor = color; }
 
     public TextAlignment getAlignment() { return alignment; }
-    public void setAlignment(TextAlignment alignment) { this.alignment = alignment; }
+    public void setAlignment(TextAlignment alignment) { changed(); this.alignment = alignment; }
 
     public double getLineSpacing() { return lineSpacing; }
-    public void setLineSpacing(double spacing) { this.lineSpacing = spacing; }
+    public void setLineSpacing(double spacing) { changed(); this.lineSpacing = spacing; }
 
     public int getIndentLevel() { return indentLevel; }
-    public void setIndentLevel(int level) { this.indentLevel = level; }
+    public void setIndentLevel(int level) { changed(); this.indentLevel = level; }
 
     public String getStyleType() { return styleType; }
-    public void setStyleType(String type) { this.styleType = type; }
+    public void setStyleType(String type) { changed(); this.styleType = type; }
 
-    // CSS String generation for JavaFX
+    // CSS String generation for JavaFX, cached until the style changes
     public String toCSS() {
-        StringBuilder css = new StringBuilder();
-        css.append("-fx-font-family: '").append(fontFamily).append("'; ");
-        css.append("-fx-font-size: ").append(fontSize).append("pt; ");
-
-        if (bold) css.append("-fx-font-weight: bold; ");
-        if (italic) css.append("-fx-font-style: italic; ");
+        String result = css;
+        if (result == null) {
+            StringBuilder builder = new StringBuilder();
+            builder.append("-fx-font-family: '").append(fontFamily).append("'; ");
+            builder.append("-fx-font-size: ").append(fontSize).append("pt; ");
+
+            if (bold) builder.append("-fx-font-weight: bold; ");
+            if (italic) builder.append("-fx-font-style: italic; ");
+
+            builder.append("-fx-text-fill: ").append(textColor).append("; ");
+            builder.append("-fx-background-color: ").append(backgroundColor).append("; ");
+
+            result = builder.toString();
+            css = result;
+        }
+        return result;
+    }
 
-        css.append("-fx-text-fill: ").append(textColor).append("; ");
-        css.append("-fx-background-color: ").append(backgroundColor).append("; ");
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Style)) return false;
+        Style other = (Style) o;
+        return fontSize == other.fontSize
+                && bold == other.bold
+                && italic == other.italic
+                && underline == other.underline
+                && strikethrough == other.strikethrough
+                && Double.compare(lineSpacing, other.lineSpacing) == 0
+                && indentLevel == other.indentLevel
+                && alignment == other.alignment
+                && Objects.equals(name, other.name)
+                && Objects.equals(fontFamily, other.fontFamily)
+                && Objects.equals(textColor, other.textColor)
+                && Objects.equals(backgroundColor, other.backgroundColor)
+                && Objects.equals(styleType, other.styleType);
+    }
 
-        return css.toString();
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(name, fontFamily, fontSize, bold, italic, underline, strikethrough,
+                    textColor, backgroundColor, alignment, lineSpacing, indentLevel, styleType);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
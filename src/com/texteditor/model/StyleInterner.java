@@ -0,0 +1,52 @@
+package com.texteditor.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flyweight pool for {@link Style} and {@link TextStyle} values.
+ * Equal styles are replaced by one canonical instance whose CSS and hash are
+ * computed when it enters the pool, so a formatted span costs a reference no
+ * matter how many spans share its style. The pool is thread-safe and keeps its
+ * entries for the life of the application; the number of distinct styles in use
+ * is small compared with the number of spans.
+ */
+public final class StyleInterner {
+
+    private static final StyleInterner SHARED = new StyleInterner();
+
+    private final ConcurrentHashMap<Style, Style> styles = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TextStyle, TextStyle> textStyles = new ConcurrentHashMap<>();
+
+    public static StyleInterner shared() {
+        return SHARED;
+    }
+
+    /**
+     * The canonical, frozen instance equal to {@code style}. A mutable argument
+     * is copied, so the caller may keep changing it.
+     */
+    public Style intern(Style style) {
+        Style canonical = styles.get(style);
+        if (canonical != null) return canonical;
+
+        Style frozen = style.isFrozen() ? style : style.copy().freeze();
+        canonical = styles.putIfAbsent(frozen, frozen);
+        return canonical != null ? canonical : frozen;
+    }
+
+    /**
+     * The canonical instance equal to {@code style}.
+     */
+    public TextStyle intern(TextStyle style) {
+        TextStyle canonical = textStyles.get(style);
+        if (canonical != null) return canonical;
+
+        style.toCss();
+        canonical = textStyles.putIfAbsent(style, style);
+        return canonical != null ? canonical : style;
+    }
+
+    public int size() {
+        return styles.size() + textStyles.size();
+    }
+}
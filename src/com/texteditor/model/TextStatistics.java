@@ -0,0 +1,93 @@
+package com.texteditor.model;
+
+/**
+ * Word, non-whitespace character and paragraph counts maintained from edit deltas.
+ * Each edit only rescans the removed and inserted text plus two characters on
+ * either side, so the counts stay O(1) to read regardless of document size.
+ * Whitespace matches the regex {@code \s} class used by the old split-based counts.
+ * Paragraphs are separated by runs of two or more line breaks.
+ */
+public class TextStatistics {
+
+    private int wordCount;
+    private int nonWhitespaceCount;
+    private int paragraphBreakCount;
+
+    public TextStatistics() {
+    }
+
+    public TextStatistics(CharSequence text) {
+        update("", "", text, "");
+    }
+
+    public int getWordCount() { return wordCount; }
+
+    public int getNonWhitespaceCount() { return nonWhitespaceCount; }
+
+    public int getParagraphCount() { return paragraphBreakCount + 1; }
+
+    /**
+     * Apply an edit that replaced {@code removed} with {@code inserted}.
+     * {@code leading} and {@code trailing} are the two characters on either side
+     * of the edit, or fewer where the document begins or ends.
+     */
+    public void update(CharSequence leading, CharSequence removed, CharSequence inserted, CharSequence trailing) {
+        int before = leading.length() > 0 ? leading.charAt(leading.length() - 1) : -1;
+        int after = trailing.length() > 0 ? trailing.charAt(0) : -1;
+        wordCount += wordStarts(before, inserted, after) - wordStarts(before, removed, after);
+        nonWhitespaceCount += nonWhitespace(inserted) - nonWhitespace(removed);
+        paragraphBreakCount += paragraphBreaks(leading, inserted, trailing) - paragraphBreaks(leading, removed, trailing);
+    }
+
+    // Counts word starts inside the segment, plus the following character if the
+    // segment decides whether it starts a word
+    private static int wordStarts(int before, CharSequence segment, int after) {
+        boolean previousIsSpace = before < 0 || isWhitespace((char) before);
+        int starts = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            boolean space = isWhitespace(segment.charAt(i));
+            if (!space && previousIsSpace) starts++;
+            previousIsSpace = space;
+        }
+        if (after >= 0 && !isWhitespace((char) after) && previousIsSpace) {
+            starts++;
+        }
+        return starts;
+    }
+
+    // Counts the starts of line-break runs ("\n\n" after a non-break) whose three
+    // characters reach into the segment; the context decides the rest
+    private static int paragraphBreaks(CharSequence leading, CharSequence segment, CharSequence trailing) {
+        int from = leading.length();
+        int to = from + segment.length();
+        int length = to + trailing.length();
+        int breaks = 0;
+        for (int i = Math.max(from - 1, 0); i <= to && i + 1 < length; i++) {
+            if (charAt(leading, segment, trailing, i) == '\n'
+                    && charAt(leading, segment, trailing, i + 1) == '\n'
+                    && (i == 0 || charAt(leading, segment, trailing, i - 1) != '\n')) {
+                breaks++;
+            }
+        }
+        return breaks;
+    }
+
+    private static char charAt(CharSequence leading, CharSequence segment, CharSequence trailing, int index) {
+        if (index < leading.length()) return leading.charAt(index);
+        index -= leading.length();
+        if (index < segment.length()) return segment.charAt(index);
+        return trailing.charAt(index - segment.length());
+    }
+
+    private static int nonWhitespace(CharSequence segment) {
+        int count = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            if (!isWhitespace(segment.charAt(i))) count++;
+        }
+        return count;
+    }
+
+    public static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,126 @@
+package com.texteditor.model;
+
+import java.util.Objects;
+
+/**
+ * Immutable character style used for the editor's style spans.
+ * Bold, italic, underline and strikethrough are bits of one int; font family,
+ * size and colours are optional and fall back to the area's defaults when unset.
+ * Instances are canonical flyweights from {@link StyleInterner}, so equal styles
+ * share one object and its CSS.
+ */
+public final class TextStyle {
+
+    public static final int BOLD = 1;
+    public static final int ITALIC = 1 << 1;
+    public static final int UNDERLINE = 1 << 2;
+    public static final int STRIKETHROUGH = 1 << 3;
+
+    public static final TextStyle EMPTY = of(0, null, 0, null, null);
+
+    private final int flags;
+    private final String fontFamily;
+    private final int fontSize;
+    private final String textColor;
+    private final String backgroundColor;
+    private final int hash;
+    private volatile String css;
+
+    private TextStyle(int flags, String fontFamily, int fontSize, String textColor, String backgroundColor) {
+        this.flags = flags;
+        this.fontFamily = fontFamily;
+        this.fontSize = fontSize;
+        this.textColor = textColor;
+        this.backgroundColor = backgroundColor;
+        this.hash = Objects.hash(flags, fontFamily, fontSize, textColor, backgroundColor);
+    }
+
+    /**
+     * The canonical style with these attributes.
+     *
+     * @param fontFamily      font family, or null for the default
+     * @param fontSize        size in pixels, or 0 for the default
+     * @param textColor       colour as #RRGGBB, or null for the default
+     * @param backgroundColor highlight as #RRGGBB, or null for none
+     */
+    public static TextStyle of(int flags, String fontFamily, int fontSize, String textColor, String backgroundColor) {
+        return StyleInterner.shared().intern(new TextStyle(flags, fontFamily, fontSize, textColor, backgroundColor));
+    }
+
+    // Getters
+    public int getFlags() { return flags; }
+    public String getFontFamily() { return fontFamily; }
+    public int getFontSize() { return fontSize; }
+    public String getTextColor() { return textColor; }
+    public String getBackgroundColor() { return backgroundColor; }
+
+    public boolean has(int flag) {
+        return (flags & flag) == flag;
+    }
+
+    // Derived styles
+
+    public TextStyle with(int flag, boolean enabled) {
+        int updated = enabled ? flags | flag : flags & ~flag;
+        return updated == flags ? this : of(updated, fontFamily, fontSize, textColor, backgroundColor);
+    }
+
+    public TextStyle withFontFamily(String family) {
+        return Objects.equals(family, fontFamily) ? this : of(flags, family, fontSize, textColor, backgroundColor);
+    }
+
+    public TextStyle withFontSize(int size) {
+        return size == fontSize ? this : of(flags, fontFamily, size, textColor, backgroundColor);
+    }
+
+    public TextStyle withTextColor(String color) {
+        return Objects.equals(color, textColor) ? this : of(flags, fontFamily, fontSize, color, backgroundColor);
+    }
+
+    public TextStyle withBackgroundColor(String color) {
+        return Objects.equals(color, backgroundColor) ? this : of(flags, fontFamily, fontSize, textColor, color);
+    }
+
+    /**
+     * Inline CSS for a RichTextFX text node.
+     */
+    public String toCss() {
+        String result = css;
+        if (result == null) {
+            StringBuilder builder = new StringBuilder();
+            if (fontFamily != null) builder.append("-fx-font-family: '").append(fontFamily).append("';");
+            if (fontSize > 0) builder.append("-fx-font-size: ").append(fontSize).append(';');
+            if (has(BOLD)) builder.append("-fx-font-weight: bold;");
+            if (has(ITALIC)) builder.append("-fx-font-style: italic;");
+            if (has(UNDERLINE)) builder.append("-fx-underline: true;");
+            if (has(STRIKETHROUGH)) builder.append("-fx-strikethrough: true;");
+            if (textColor != null) builder.append("-fx-fill: ").append(textColor).append(';');
+            if (backgroundColor != null) builder.append("-rtfx-background-color: ").append(backgroundColor).append(';');
+            result = builder.toString();
+            css = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TextStyle)) return false;
+        TextStyle other = (TextStyle) o;
+        return flags == other.flags
+                && fontSize == other.fontSize
+                && Objects.equals(fontFamily, other.fontFamily)
+                && Objects.equals(textColor, other.textColor)
+                && Objects.equals(backgroundColor, other.backgroundColor);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "TextStyle{" + toCss() + '}';
+    }
+}
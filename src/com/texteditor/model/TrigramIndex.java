@@ -0,0 +1,199 @@
+package com.texteditor.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Block-level trigram index used to skip regions that cannot contain a search term.
+ * The text is cut into blocks of one to two times {@link #BLOCK_SIZE} chars, each with a
+ * hashed bitset of the case-folded trigrams starting inside it. A term can only
+ * start in a block whose bitset (together with the blocks its tail reaches into)
+ * contains all of the term's trigrams, so searches run the real matcher on those
+ * candidate ranges only. False positives are possible; false negatives are not.
+ * Edits rebuild only the blocks they touch. Block lengths and bitsets live in
+ * flat primitive arrays so a query is a tight scan over contiguous memory.
+ */
+public class TrigramIndex {
+
+    public static final int BLOCK_SIZE = 8192;
+    private static final int BITS_SHIFT = 14;
+    private static final int WORDS = (1 << BITS_SHIFT) / 64;
+
+    private int[] lengths;
+    // WORDS longs per block, in block order
+    private long[] bits;
+    private int blockCount;
+    private int textLength;
+
+    public TrigramIndex(CharSequence text) {
+        this.lengths = new int[16];
+        this.bits = new long[16 * WORDS];
+        this.textLength = text.length();
+        replaceBlocks(text, 0, 0, 0, text.length());
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    // Queries
+
+    /**
+     * Append [start, end) ranges of the text in which an occurrence of {@code term}
+     * may start. Terms shorter than a trigram match everywhere, so the whole
+     * text is one range.
+     */
+    public void findCandidates(CharSequence term, List<int[]> ranges) {
+        if (term.length() < 3) {
+            if (textLength > 0) ranges.add(new int[]{0, textLength});
+            return;
+        }
+
+        int[] hashes = new int[term.length() - 2];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = hash(fold(term.charAt(i)), fold(term.charAt(i + 1)), fold(term.charAt(i + 2)));
+        }
+
+        // Presence of the first trigram is read once per block and reused as the
+        // neighbour test for the previous block
+        int first = hashes[0];
+        boolean inCurrent = blockCount > 0 && contains(0, first);
+        int[] last = null;
+        int blockStart = 0;
+        for (int b = 0; b < blockCount; b++) {
+            int blockEnd = blockStart + lengths[b];
+            boolean inNext = b + 1 < blockCount && contains(b + 1, first);
+            boolean reachesFurther = b + 2 < blockCount && lengths[b + 1] <= term.length() - 3;
+
+            if ((inCurrent || inNext || reachesFurther) && mayStartIn(b, blockEnd, term.length(), hashes)) {
+                if (last != null && last[1] == blockStart) {
+                    last[1] = blockEnd;
+                } else {
+                    last = new int[]{blockStart, blockEnd};
+                    ranges.add(last);
+                }
+            }
+            inCurrent = inNext;
+            blockStart = blockEnd;
+        }
+    }
+
+    private boolean contains(int block, int hash) {
+        return (bits[block * WORDS + (hash >>> 6)] & (1L << hash)) != 0;
+    }
+
+    private boolean mayStartIn(int first, int firstEnd, int termLength, int[] hashes) {
+        // The term's last trigram starts at most termLength - 3 chars past the block end
+        int reach = firstEnd + termLength - 3;
+        for (int hash : hashes) {
+            int word = hash >>> 6;
+            long mask = 1L << hash;
+            boolean found = (bits[first * WORDS + word] & mask) != 0;
+            int blockStart = firstEnd;
+            for (int b = first + 1; !found && b < blockCount && blockStart <= reach; b++) {
+                found = (bits[b * WORDS + word] & mask) != 0;
+                blockStart += lengths[b];
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    // Maintenance
+
+    /**
+     * Re-index after {@code removedLength} chars at {@code position} were replaced by
+     * {@code insertedLength} chars. {@code text} is the text after the edit.
+     */
+    public void update(CharSequence text, int position, int removedLength, int insertedLength) {
+        // Trigrams starting up to two chars before the edit read into it; those
+        // starting after the removed range keep their hashes
+        int dirtyStart = Math.max(0, position - 2);
+        int removedEnd = position + removedLength;
+
+        int first = 0;
+        int firstStart = 0;
+        while (first < blockCount - 1 && firstStart + lengths[first] <= dirtyStart) {
+            firstStart += lengths[first];
+            first++;
+        }
+
+        int last = first;
+        int lastEnd = firstStart + lengths[first];
+        while (last < blockCount - 1 && lastEnd < removedEnd) {
+            last++;
+            lastEnd += lengths[last];
+        }
+
+        textLength += insertedLength - removedLength;
+        replaceBlocks(text, first, last + 1, firstStart, lastEnd - removedLength + insertedLength);
+    }
+
+    /**
+     * Replace blocks [from, to) with freshly hashed blocks covering text [start, end).
+     * Typing inside a block keeps the block count, so nothing is shifted.
+     */
+    private void replaceBlocks(CharSequence text, int from, int to, int start, int end) {
+        int count = (end - start + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        if (to - from == 1 && end - start <= 2 * BLOCK_SIZE) {
+            // A block grown by typing is split only once it doubles, so the
+            // block arrays are shifted rarely
+            count = 1;
+        } else if (count == 0 && blockCount == to - from) {
+            // Keep one (empty) block so positions always resolve
+            count = 1;
+        }
+
+        int delta = count - (to - from);
+        if (delta != 0) {
+            if (blockCount + delta > lengths.length) {
+                int capacity = Math.max(lengths.length * 2, blockCount + delta);
+                lengths = Arrays.copyOf(lengths, capacity);
+                bits = Arrays.copyOf(bits, capacity * WORDS);
+            }
+            System.arraycopy(lengths, to, lengths, to + delta, blockCount - to);
+            System.arraycopy(bits, to * WORDS, bits, (to + delta) * WORDS, (blockCount - to) * WORDS);
+            blockCount += delta;
+        }
+
+        int position = start;
+        for (int i = 0; i < count; i++) {
+            int block = from + i;
+            int blockEnd = i == count - 1 ? end : position + BLOCK_SIZE;
+            lengths[block] = blockEnd - position;
+            hashBlock(text, block, position, blockEnd);
+            position = blockEnd;
+        }
+    }
+
+    private void hashBlock(CharSequence text, int block, int start, int end) {
+        int offset = block * WORDS;
+        Arrays.fill(bits, offset, offset + WORDS, 0L);
+
+        int last = Math.min(end, text.length() - 2);
+        if (start >= last) return;
+
+        char a = fold(text.charAt(start));
+        char b = fold(text.charAt(start + 1));
+        for (int p = start; p < last; p++) {
+            char c = fold(text.charAt(p + 2));
+            int hash = hash(a, b, c);
+            bits[offset + (hash >>> 6)] |= 1L << hash;
+            a = b;
+            b = c;
+        }
+    }
+
+    // Expects folded chars
+    private static int hash(char a, char b, char c) {
+        int h = (a * 31 + b) * 31 + c;
+        return (h * 0x9E3779B9) >>> (32 - BITS_SHIFT);
+    }
+
+    private static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
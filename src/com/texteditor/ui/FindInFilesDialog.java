@@ -0,0 +1,201 @@
+package com.texteditor.ui;
+
+import com.texteditor.engine.FindInFilesEngine;
+import com.texteditor.engine.SearchReplaceEngine.SearchOption;
+import javafx.animation.AnimationTimer;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * "Find in Files" window.
+ * Hits stream in from a {@link FindInFilesEngine} search and are drained from its
+ * queue once per frame, so the list fills while the search is still running.
+ */
+public class FindInFilesDialog {
+
+    private static final int HITS_PER_FRAME = 500;
+    private static final int MAX_LISTED_HITS = 100_000;
+    private static final int MAX_LISTED_FAILURES = 20;
+
+    private final FindInFilesEngine engine = new FindInFilesEngine();
+    private final ObservableList<FindInFilesEngine.Hit> hits = FXCollections.observableArrayList();
+    private final List<FindInFilesEngine.Hit> drained = new ArrayList<>();
+    private final TextField termField = new TextField();
+    private final CheckBox matchCase = new CheckBox("Match case");
+    private final CheckBox wholeWords = new CheckBox("Whole words");
+    private final CheckBox useRegex = new CheckBox("Regex");
+    private final Label folderLabel = new Label("No folder selected");
+    private final Label statusLabel = new Label("Ready");
+    private final Button searchButton = new Button("Search");
+    private final Stage stage;
+    private final AnimationTimer poller;
+
+    private File folder;
+    private FindInFilesEngine.Search search;
+
+    public FindInFilesDialog() {
+        termField.setPromptText("Find:");
+        HBox.setHgrow(termField, Priority.ALWAYS);
+
+        Button folderButton = new Button("Folder...");
+        folderButton.setOnAction(e -> chooseFolder());
+        searchButton.setOnAction(e -> {
+            if (search != null && !search.isFinished()) {
+                stopSearch();
+            } else {
+                startSearch();
+            }
+        });
+        termField.setOnAction(e -> startSearch());
+
+        HBox queryRow = new HBox(10, termField, searchButton);
+        HBox optionsRow = new HBox(10, matchCase, wholeWords, useRegex, folderButton, folderLabel);
+        BorderPane top = new BorderPane(optionsRow);
+        top.setTop(queryRow);
+        top.setPadding(new Insets(10));
+        BorderPane.setMargin(optionsRow, new Insets(10, 0, 0, 0));
+
+        ListView<FindInFilesEngine.Hit> listView = new ListView<>(hits);
+        listView.setStyle("-fx-font-family: 'Consolas'; -fx-font-size: 12;");
+        listView.setCellFactory(view -> new HitCell());
+
+        BorderPane root = new BorderPane(listView);
+        root.setTop(top);
+        statusLabel.setStyle("-fx-padding: 5 10 5 10; -fx-font-size: 10;");
+        root.setBottom(statusLabel);
+
+        poller = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                drainHits();
+            }
+        };
+
+        stage = new Stage();
+        stage.setTitle("Find in Files");
+        stage.setScene(new Scene(root, 900, 600));
+        stage.setOnHidden(e -> close());
+    }
+
+    public void show() {
+        stage.show();
+    }
+
+    private void chooseFolder() {
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Search Folder");
+        File chosen = chooser.showDialog(stage);
+        if (chosen != null) {
+            folder = chosen;
+            folderLabel.setText(chosen.getAbsolutePath());
+        }
+    }
+
+    private void startSearch() {
+        String term = termField.getText();
+        if (term.isEmpty()) return;
+        if (folder == null) {
+            chooseFolder();
+            if (folder == null) return;
+        }
+
+        stopSearch();
+        hits.clear();
+        statusLabel.setTooltip(null);
+
+        Set<SearchOption> options = EnumSet.noneOf(SearchOption.class);
+        if (matchCase.isSelected()) options.add(SearchOption.CASE_SENSITIVE);
+        if (wholeWords.isSelected()) options.add(SearchOption.WHOLE_WORDS_ONLY);
+        if (useRegex.isSelected()) options.add(SearchOption.USE_REGEX);
+
+        search = engine.search(folder.toPath(), term, options);
+        searchButton.setText("Stop");
+        poller.start();
+    }
+
+    private void stopSearch() {
+        if (search != null) {
+            search.cancel();
+            drainHits();
+        }
+    }
+
+    // Runs once per frame while a search is active
+    private void drainHits() {
+        if (search == null) return;
+
+        drained.clear();
+        search.drainTo(drained, HITS_PER_FRAME);
+        int room = MAX_LISTED_HITS - hits.size();
+        if (room > 0 && !drained.isEmpty()) {
+            hits.addAll(drained.size() <= room ? drained : drained.subList(0, room));
+        }
+
+        boolean finished = search.isFinished() && drained.isEmpty();
+        statusLabel.setText(
+                (finished ? (search.isCancelled() ? "Stopped" : "Done") : "Searching...") +
+                        " | Hits: " + search.getHitCount() +
+                        (search.getHitCount() > hits.size() ? " (first " + hits.size() + " listed)" : "") +
+                        " | Files: " + search.getFilesSearched() +
+                        (search.getFailureCount() > 0 ? " | Skipped: " + search.getFailureCount() : "") +
+                        " | " + Math.round(search.getHitsPerSecond()) + " hits/s"
+        );
+        if (finished) {
+            poller.stop();
+            searchButton.setText("Search");
+            showFailures();
+        }
+    }
+
+    // The reasons files were skipped, shown when hovering over the status line
+    private void showFailures() {
+        List<String> failures = search.getFailures();
+        if (failures.isEmpty()) return;
+
+        StringBuilder text = new StringBuilder();
+        for (String failure : failures.subList(0, Math.min(failures.size(), MAX_LISTED_FAILURES))) {
+            if (text.length() > 0) text.append('\n');
+            text.append(failure);
+        }
+        if (failures.size() > MAX_LISTED_FAILURES) text.append("\n...");
+        statusLabel.setTooltip(new Tooltip(text.toString()));
+    }
+
+    private void close() {
+        stopSearch();
+        poller.stop();
+        engine.shutdown();
+    }
+
+    private static class HitCell extends ListCell<FindInFilesEngine.Hit> {
+        @Override
+        protected void updateItem(FindInFilesEngine.Hit hit, boolean empty) {
+            super.updateItem(hit, empty);
+            if (empty || hit == null) {
+                setText(null);
+                return;
+            }
+            setText(hit.getFile().getFileName() + ":" + hit.getLine() + ":" + hit.getColumn() + "  " + hit.getPreview().trim());
+        }
+    }
+}
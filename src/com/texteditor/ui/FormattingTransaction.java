@@ -0,0 +1,131 @@
+package com.texteditor.ui;
+
+import com.texteditor.model.TextStyle;
+import org.fxmisc.richtext.model.StyleSpan;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Collects style changes over any number of ranges and applies them as one
+ * style-span update. The area sees a single change, lays out once, and
+ * records a single undo step, however many attributes and ranges were touched.
+ * Changes are applied in the order they were added.
+ */
+public class FormattingTransaction {
+
+    private static final class Change {
+        final int start;
+        final int end;
+        final UnaryOperator<TextStyle> update;
+
+        Change(int start, int end, UnaryOperator<TextStyle> update) {
+            this.start = start;
+            this.end = end;
+            this.update = update;
+        }
+    }
+
+    private final RichTextArea area;
+    private final List<Change> changes = new ArrayList<>();
+
+    public FormattingTransaction(RichTextArea area) {
+        this.area = area;
+    }
+
+    // Attribute changes
+
+    public FormattingTransaction update(int start, int end, UnaryOperator<TextStyle> update) {
+        if (start < end) changes.add(new Change(start, end, update));
+        return this;
+    }
+
+    public FormattingTransaction set(int start, int end, TextStyle style) {
+        return update(start, end, ignored -> style);
+    }
+
+    public FormattingTransaction setFlag(int start, int end, int flag, boolean enabled) {
+        return update(start, end, style -> style.with(flag, enabled));
+    }
+
+    public FormattingTransaction setFontFamily(int start, int end, String family) {
+        return update(start, end, style -> style.withFontFamily(family));
+    }
+
+    public FormattingTransaction setFontSize(int start, int end, int size) {
+        return update(start, end, style -> style.withFontSize(size));
+    }
+
+    public FormattingTransaction setTextColor(int start, int end, String color) {
+        return update(start, end, style -> style.withTextColor(color));
+    }
+
+    public FormattingTransaction setBackgroundColor(int start, int end, String color) {
+        return update(start, end, style -> style.withBackgroundColor(color));
+    }
+
+    /**
+     * Apply every collected change in one style-span update and reset the transaction.
+     * The spans covering all changed ranges are read once and cut only where a
+     * range begins or ends.
+     */
+    public void commit() {
+        int from = Integer.MAX_VALUE;
+        int to = 0;
+        for (Change change : changes) {
+            from = Math.min(from, change.start);
+            to = Math.max(to, change.end);
+        }
+        from = Math.max(from, 0);
+        to = Math.min(to, area.getLength());
+        if (from >= to) {
+            changes.clear();
+            return;
+        }
+
+        int[] cuts = cutPoints(from, to);
+        StyleSpansBuilder<TextStyle> spans = new StyleSpansBuilder<>();
+        int position = from;
+        int cut = 0;
+        for (StyleSpan<TextStyle> span : area.getStyleSpans(from, to)) {
+            int spanEnd = position + span.getLength();
+            while (position < spanEnd) {
+                while (cut < cuts.length && cuts[cut] <= position) cut++;
+                int pieceEnd = cut < cuts.length ? Math.min(spanEnd, cuts[cut]) : spanEnd;
+                spans.add(styleAt(span.getStyle(), position), pieceEnd - position);
+                position = pieceEnd;
+            }
+        }
+
+        area.setStyleSpans(from, spans.create());
+        changes.clear();
+    }
+
+    // Sorted, distinct range boundaries inside (from, to)
+    private int[] cutPoints(int from, int to) {
+        int[] cuts = new int[changes.size() * 2];
+        int count = 0;
+        for (Change change : changes) {
+            if (change.start > from && change.start < to) cuts[count++] = change.start;
+            if (change.end > from && change.end < to) cuts[count++] = change.end;
+        }
+        Arrays.sort(cuts, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || cuts[distinct - 1] != cuts[i]) cuts[distinct++] = cuts[i];
+        }
+        return Arrays.copyOf(cuts, distinct);
+    }
+
+    private TextStyle styleAt(TextStyle style, int position) {
+        for (Change change : changes) {
+            if (change.start <= position && position < change.end) {
+                style = change.update.apply(style);
+            }
+        }
+        return style;
+    }
+}
@@ -0,0 +1,108 @@
+package com.texteditor.ui;
+
+import com.texteditor.util.MappedTextFile;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Read-only "large file mode" window.
+ * Lines are served straight from a {@link MappedTextFile}; the virtualized list
+ * only decodes the rows on screen, so scrolling cost does not depend on file size.
+ */
+public class LargeFileViewer {
+
+    private final MappedTextFile file;
+    private final LineList lines;
+    private final Label statusLabel;
+    private final Stage stage;
+
+    public LargeFileViewer(Path path) throws IOException {
+        this.file = new MappedTextFile(path);
+        this.lines = new LineList();
+        this.statusLabel = new Label("Indexing lines...");
+
+        ListView<Integer> listView = new ListView<>(lines);
+        listView.setFixedCellSize(20);
+        listView.setStyle("-fx-font-family: 'Consolas'; -fx-font-size: 12;");
+        listView.setCellFactory(view -> new LineCell());
+
+        BorderPane root = new BorderPane(listView);
+        statusLabel.setStyle("-fx-padding: 5 10 5 10; -fx-font-size: 10;");
+        root.setBottom(statusLabel);
+
+        stage = new Stage();
+        stage.setTitle(path.getFileName() + " (Read-Only)");
+        stage.setScene(new Scene(root, 1000, 700));
+        stage.setOnHidden(e -> close());
+    }
+
+    public void show() {
+        file.startIndexing(() -> Platform.runLater(this::refreshLineCount));
+        stage.show();
+    }
+
+    private void refreshLineCount() {
+        lines.resize(file.getAvailableLineCount());
+        IOException failure = file.getIndexFailure();
+        String state = failure != null ? "Indexing failed: " + failure.getMessage() + " | Lines read: "
+                : file.isIndexComplete() ? "Read-only | Lines: " : "Indexing... | Lines so far: ";
+        statusLabel.setText(state + lines.size() + " | Size: " + file.getSize() / 1024 + " KB");
+    }
+
+    private void close() {
+        try {
+            file.close();
+        } catch (IOException e) {
+            System.err.println("Could not close " + file.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    // Line numbers as list items; grows as the background index advances
+    private static class LineList extends ObservableListBase<Integer> {
+        private int size;
+
+        void resize(int newSize) {
+            if (newSize <= size) return;
+
+            beginChange();
+            nextAdd(size, newSize);
+            size = newSize;
+            endChange();
+        }
+
+        @Override
+        public Integer get(int index) {
+            return index;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private class LineCell extends ListCell<Integer> {
+        @Override
+        protected void updateItem(Integer line, boolean empty) {
+            super.updateItem(line, empty);
+            if (empty || line == null) {
+                setText(null);
+                return;
+            }
+            try {
+                setText(file.getLine(line));
+            } catch (IOException e) {
+                setText("<unreadable: " + e.getMessage() + ">");
+            }
+        }
+    }
+}
@@ -1,16 +1,47 @@
 package com.texteditor.ui;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.geometry.Insets;
-import org.fxmisc.richtext.InlineCssTextArea;
+import javafx.stage.FileChooser;
+import org.fxmisc.richtext.Selection;
+import org.fxmisc.richtext.SelectionImpl;
+import org.fxmisc.richtext.model.PlainTextChange;
+import org.fxmisc.richtext.model.StyledDocument;
+import com.texteditor.engine.AhoCorasick;
+import com.texteditor.engine.FormattingEngine;
+import com.texteditor.engine.HtmlExporter;
+import com.texteditor.engine.IncrementalSearch;
+import com.texteditor.engine.MatchResultSet;
+import com.texteditor.engine.RegexGuard;
+import com.texteditor.engine.ReplacementSet;
+import com.texteditor.engine.SearchReplaceEngine;
+import com.texteditor.engine.SearchReplaceEngine.SearchOption;
+import com.texteditor.engine.SearchService;
 import com.texteditor.manager.DocumentManager;
 import com.texteditor.manager.PreferencesManager;
+import com.texteditor.util.ChunkedFileLoader;
 import com.texteditor.util.Constants;
+import com.texteditor.util.NioFileHandler;
+import com.texteditor.model.CompactText;
 import com.texteditor.model.Document;
+import com.texteditor.model.LineIndex;
+import com.texteditor.model.Rope;
+import com.texteditor.model.TrigramIndex;
+import com.texteditor.model.TextStyle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * FXML Controller for Main Window
@@ -18,6 +49,10 @@ import com.texteditor.model.Document;
  */
 public class MainController {
 
+    private static final int MAX_FIND_HIGHLIGHTS = 500;
+    // Loaded documents at least this long get a trigram index for find
+    private static final int TRIGRAM_INDEX_MIN_LENGTH = 1 << 20;
+
     @FXML
     private StackPane textEditorContainer;
 
@@ -55,14 +90,28 @@ public class MainController {
     private ToggleButton strikeBtn;
 
     // Rich Text Area
-    private InlineCssTextArea textArea;
+    private RichTextArea textArea;
 
     // Managers
     private DocumentManager documentManager;
     private PreferencesManager preferencesManager;
+    private FormattingEngine formattingEngine;
+    private ChunkedFileLoader fileLoader;
+    private IncrementalSearch incrementalSearch;
+    private SearchReplaceEngine regexSearch;
+    private SearchService searchService;
+    private HtmlExporter htmlExporter;
 
     // State
     private boolean trackingMode = false;
+    private ChunkedFileLoader.LoadTask loadTask;
+    private SearchService.Task replaceTask;
+    private String statusPrefix = "Ready";
+    private boolean mirroringSuspended;
+
+    // Term list automaton, kept so later checks of any document reuse it
+    private AhoCorasick termList;
+    private File termListFile;
 
     /**
      * Initialize controller (called automatically after FXML loading)
@@ -70,11 +119,18 @@ public class MainController {
     @FXML
     public void initialize() {
         // Initialize managers
-        documentManager = new DocumentManager(new FileHandlerImpl());
         preferencesManager = new PreferencesManager(Constants.PREFERENCES_FILE);
+        documentManager = new DocumentManager(new NioFileHandler(preferencesManager.isCompactStorage()));
+        formattingEngine = new FormattingEngine();
+        fileLoader = new ChunkedFileLoader();
+        incrementalSearch = new IncrementalSearch();
+        regexSearch = new SearchReplaceEngine();
+        regexSearch.setOption(SearchOption.USE_REGEX, true);
+        searchService = new SearchService();
+        htmlExporter = new HtmlExporter(formattingEngine);
 
         // Create Rich Text Area
-        textArea = new InlineCssTextArea();
+        textArea = new RichTextArea();
         textArea.setWrapText(true);
         textArea.setStyle("-fx-font-family: 'Consolas'; -fx-font-size: 12; -fx-padding: 15;");
         textArea.setPrefHeight(600);
@@ -85,8 +141,11 @@ public class MainController {
         scrollPane.setStyle("-fx-background-color: white;");
         textEditorContainer.getChildren().add(scrollPane);
 
-        // Listen to text changes
-        textArea.textProperty().addListener((obs, oldText, newText) -> updateStatusBar());
+        // Mirror edits into the current document as deltas instead of copying the text
+        textArea.plainTextChanges().subscribe(this::applyTextChange);
+
+        // Listen to caret and selection changes
+        textArea.caretPositionProperty().addListener((obs, oldPos, newPos) -> updateStatusBar());
         textArea.selectionProperty().addListener((obs, oldSel, newSel) -> updateFormattingToolbar());
 
         // Initialize combo boxes
@@ -132,23 +191,57 @@ public class MainController {
 
     @FXML
     public void handleNew() {
-        textArea.clear();
+        cancelLoading();
+        cancelReplace();
+        // Switch first, so clearing the editor cannot empty the previous document
         documentManager.createNewDocument();
+        withoutMirroring(textArea::clear);
         updateStatusBar();
     }
 
     @FXML
     public void handleOpen() {
-        showAlert("Open File", "File chooser dialog coming soon");
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Open File");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Text Files", "*" + Constants.TEXT_FILE_EXTENSION, "*" + Constants.JTX_FILE_EXTENSION),
+                new FileChooser.ExtensionFilter("All Files", "*.*")
+        );
+        File file = chooser.showOpenDialog(textEditorContainer.getScene().getWindow());
+        if (file == null) return;
+
+        cancelLoading();
+        cancelReplace();
+        documentManager.createDocumentForFile(file.getPath());
+        withoutMirroring(textArea::clear);
+        EditorLoadListener listener = new EditorLoadListener();
+        loadTask = fileLoader.load(file.toPath(), listener);
+        listener.task = loadTask;
+    }
+
+    @FXML
+    public void handleOpenLargeFile() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Open Large File (Read-Only)");
+        File file = chooser.showOpenDialog(textEditorContainer.getScene().getWindow());
+        if (file == null) return;
+
+        try {
+            new LargeFileViewer(file.toPath()).show();
+        } catch (IOException e) {
+            showAlert("Open Large File", "Could not open file: " + e.getMessage());
+        }
     }
 
     @FXML
     public void handleSave() {
         Document doc = documentManager.getCurrentDocument();
         if (doc != null) {
-            doc.setContent(textArea.getText());
-            documentManager.saveDocument(doc);
-            showAlert("Save", "Document saved successfully");
+            if (documentManager.saveDocument(doc)) {
+                showAlert("Save", "Document saved successfully");
+            } else {
+                showAlert("Save", "Document could not be saved");
+            }
         }
     }
 
@@ -157,6 +250,30 @@ public class MainController {
         showAlert("Save As", "Save as dialog coming soon");
     }
 
+    @FXML
+    public void handleExportHtml() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export as HTML");
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("HTML Files", "*" + Constants.HTML_FILE_EXTENSION));
+        File file = chooser.showSaveDialog(textEditorContainer.getScene().getWindow());
+        if (file == null) return;
+
+        // Immutable view of the content, so editing can go on while the file is written
+        StyledDocument<String, String, TextStyle> snapshot = textArea.subDocument(0, textArea.getLength());
+        statusPrefix = "Exporting";
+        updateStatusBar();
+        htmlExporter.exportAsync(snapshot, file.getName(), file.toPath(), (path, error) -> Platform.runLater(() -> {
+            statusPrefix = "Ready";
+            updateStatusBar();
+            if (error != null) {
+                showAlert("Export", "Could not export: " + error.getMessage());
+            } else {
+                showAlert("Export", "Document exported to " + path.getFileName());
+            }
+        }));
+    }
+
     @FXML
     public void handlePrint() {
         showAlert("Print", "Print functionality coming soon");
@@ -204,6 +321,85 @@ public class MainController {
         showFindReplaceDialog();
     }
 
+    @FXML
+    public void handleFindInFiles() {
+        new FindInFilesDialog().show();
+    }
+
+    /**
+     * Count whole-word occurrences of every term of a list file (one term per line)
+     * in the current document, ignoring case. The list is compiled once and reused
+     * until a different file is chosen; the scan runs off the FX thread.
+     */
+    @FXML
+    public void handleCheckTerms() {
+        Document doc = documentManager.getCurrentDocument();
+        if (doc == null) return;
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Check Term List");
+        if (termListFile != null) chooser.setInitialDirectory(termListFile.getParentFile());
+        File file = chooser.showOpenDialog(textEditorContainer.getScene().getWindow());
+        if (file == null) return;
+
+        if (termList == null || !file.equals(termListFile)) {
+            try {
+                List<String> terms = new ArrayList<>();
+                for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                    String term = line.trim();
+                    if (!term.isEmpty()) terms.add(term);
+                }
+                termList = AhoCorasick.compile(terms, false);
+                termListFile = file;
+            } catch (IOException e) {
+                showAlert("Check Term List", "Could not read term list: " + e.getMessage());
+                return;
+            }
+        }
+
+        AhoCorasick automaton = termList;
+        Rope snapshot = doc.snapshot();
+        CompletableFuture.supplyAsync(() -> {
+            int[] counts = new int[automaton.getTermCount()];
+            automaton.scan(snapshot, true, (start, end, term) -> counts[term]++);
+            return counts;
+        }).whenComplete((counts, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                showTermCounts(automaton, counts);
+            } else {
+                // supplyAsync wraps what the scan threw in a CompletionException
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                showAlert("Check Term List", "Could not check terms: " + cause.getMessage());
+            }
+        }));
+    }
+
+    private void showTermCounts(AhoCorasick automaton, int[] counts) {
+        List<Integer> found = new ArrayList<>();
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                found.add(i);
+                total += counts[i];
+            }
+        }
+        if (found.isEmpty()) {
+            showAlert("Check Term List", "None of the " + counts.length + " terms occur in the document");
+            return;
+        }
+
+        found.sort((a, b) -> Integer.compare(counts[b], counts[a]));
+        StringBuilder message = new StringBuilder()
+                .append(total).append(" occurrence(s) of ")
+                .append(found.size()).append(" of ").append(counts.length).append(" terms");
+        for (int i = 0; i < Math.min(found.size(), 20); i++) {
+            int term = found.get(i);
+            message.append('\n').append(automaton.getTerm(term)).append(": ").append(counts[term]);
+        }
+        if (found.size() > 20) message.append("\n...");
+        showAlert("Check Term List", message.toString());
+    }
+
     // ============= FORMAT HANDLERS =============
 
     @FXML
@@ -293,67 +489,32 @@ public class MainController {
     // ============= FORMATTING OPERATIONS =============
 
     private void applyBoldToSelection() {
-        int start = textArea.getSelection().getStart();
-        int end = textArea.getSelection().getEnd();
-        if (start == end) return;
-
-        String style = textArea.getStyle(start, end);
-
-        if (style.contains("-fx-font-weight: bold")) {
-            textArea.setStyle(start, end, style.replace("-fx-font-weight: bold;", ""));
-            boldBtn.setSelected(false);
-        } else {
-            textArea.setStyle(start, end, style + "-fx-font-weight: bold;");
-            boldBtn.setSelected(true);
-        }
+        toggleFlagOnSelection(TextStyle.BOLD, boldBtn);
     }
 
     private void applyItalicToSelection() {
-        int start = textArea.getSelection().getStart();
-        int end = textArea.getSelection().getEnd();
-        if (start == end) return;
-
-        String style = textArea.getStyle(start, end);
-
-        if (style.contains("-fx-font-style: italic")) {
-            textArea.setStyle(start, end, style.replace("-fx-font-style: italic;", ""));
-            italicBtn.setSelected(false);
-        } else {
-            textArea.setStyle(start, end, style + "-fx-font-style: italic;");
-            italicBtn.setSelected(true);
-        }
+        toggleFlagOnSelection(TextStyle.ITALIC, italicBtn);
     }
 
     private void applyUnderlineToSelection() {
-        int start = textArea.getSelection().getStart();
-        int end = textArea.getSelection().getEnd();
-        if (start == end) return;
-
-        String style = textArea.getStyle(start, end);
-
-        if (style.contains("-fx-underline: true")) {
-            textArea.setStyle(start, end, style.replace("-fx-underline: true;", ""));
-            underlineBtn.setSelected(false);
-        } else {
-            textArea.setStyle(start, end, style + "-fx-underline: true;");
-            underlineBtn.setSelected(true);
-        }
+        toggleFlagOnSelection(TextStyle.UNDERLINE, underlineBtn);
     }
 
     private void applyStrikethroughToSelection() {
+        toggleFlagOnSelection(TextStyle.STRIKETHROUGH, strikeBtn);
+    }
+
+    /**
+     * Set the flag on the whole selection, or clear it if every character already has it
+     */
+    private void toggleFlagOnSelection(int flag, ToggleButton button) {
         int start = textArea.getSelection().getStart();
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        String style = textArea.getStyle(start, end);
-
-        if (style.contains("-fx-strikethrough: true")) {
-            textArea.setStyle(start, end, style.replace("-fx-strikethrough: true;", ""));
-            strikeBtn.setSelected(false);
-        } else {
-            textArea.setStyle(start, end, style + "-fx-strikethrough: true;");
-            strikeBtn.setSelected(true);
-        }
+        boolean enabled = !textArea.allHave(start, end, flag);
+        textArea.restyle(start, end, style -> style.with(flag, enabled));
+        button.setSelected(enabled);
     }
 
     private void applyFontFamilyToSelection(String family) {
@@ -361,7 +522,7 @@ public class MainController {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        textArea.setStyle(start, end, "-fx-font-family: '" + family + "';");
+        textArea.restyle(start, end, style -> style.withFontFamily(family));
     }
 
     private void applyFontSizeToSelection(int size) {
@@ -369,7 +530,7 @@ public class MainController {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        textArea.setStyle(start, end, "-fx-font-size: " + size + ";");
+        textArea.restyle(start, end, style -> style.withFontSize(size));
     }
 
     private void applyColorToSelection(Color color) {
@@ -378,7 +539,7 @@ public class MainController {
         if (start == end) return;
 
         String colorHex = toHexString(color);
-        textArea.setStyle(start, end, "-fx-fill: " + colorHex + ";");
+        textArea.restyle(start, end, style -> style.withTextColor(colorHex));
     }
 
     private void applyHighlightToSelection(Color color) {
@@ -387,7 +548,7 @@ public class MainController {
         if (start == end) return;
 
         String colorHex = toHexString(color);
-        textArea.setStyle(start, end, "-fx-background-color: " + colorHex + ";");
+        textArea.restyle(start, end, style -> style.withBackgroundColor(colorHex));
     }
 
     private void applyAlignmentToSelection(String alignment) {
@@ -451,8 +612,12 @@ public class MainController {
         if (start == end) return;
 
         int fontSize = level == 1 ? 28 : level == 2 ? 24 : 20;
-        String style = "-fx-font-family: 'Arial'; -fx-font-size: " + fontSize + "; -fx-font-weight: bold; -fx-fill: #1565C0;";
-        textArea.setStyle(start, end, style);
+        textArea.beginFormatting()
+                .setFontFamily(start, end, "Arial")
+                .setFontSize(start, end, fontSize)
+                .setFlag(start, end, TextStyle.BOLD, true)
+                .setTextColor(start, end, "#1565C0")
+                .commit();
     }
 
     private void applyQuoteStyle() {
@@ -460,8 +625,12 @@ public class MainController {
         int end = textArea.getSelection().getEnd();
         if (start == end) return;
 
-        String style = "-fx-font-family: 'Georgia'; -fx-font-size: 14; -fx-font-style: italic; -fx-fill: #616161;";
-        textArea.setStyle(start, end, style);
+        textArea.beginFormatting()
+                .setFontFamily(start, end, "Georgia")
+                .setFontSize(start, end, 14)
+                .setFlag(start, end, TextStyle.ITALIC, true)
+                .setTextColor(start, end, "#616161")
+                .commit();
     }
 
     // ============= DOCUMENT HANDLERS =============
@@ -510,30 +679,342 @@ public class MainController {
     // ============= UTILITY METHODS =============
 
     private void updateStatusBar() {
-        String text = textArea.getText();
-        int words = text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
-        int chars = text.length();
-        int lines = text.isEmpty() ? 1 : text.split("\n", -1).length;
+        Document doc = documentManager.getCurrentDocument();
+        if (doc == null) return;
+
+        Document.DocumentStats stats = doc.getStatistics();
+        int words = stats.words;
+        int chars = stats.characters;
+        int lines = stats.lines;
+        LineIndex lineIndex = doc.getLineIndex();
+        int caret = textArea.getCaretPosition();
 
         statusLabel.setText(
-                "Ready | Words: " + words +
+                statusPrefix + " | Ln " + formattingEngine.getLineFromOffset(lineIndex, caret) +
+                        ", Col " + (formattingEngine.getColumnFromOffset(lineIndex, caret) + 1) +
+                        " | Words: " + words +
                         " | Characters: " + chars +
                         " | Lines: " + lines
         );
     }
 
+    private void applyTextChange(PlainTextChange change) {
+        if (mirroringSuspended) return;
+
+        // A pending replace refers to the text before this edit
+        cancelReplace();
+        Document doc = documentManager.getCurrentDocument();
+        if (doc != null) {
+            doc.replaceText(change.getPosition(), change.getRemovalEnd(), change.getInserted());
+        }
+        updateStatusBar();
+    }
+
+    /**
+     * Change the editor without mirroring the change into the current document,
+     * for edits the document has already been brought up to date with.
+     */
+    private void withoutMirroring(Runnable edit) {
+        mirroringSuspended = true;
+        try {
+            edit.run();
+        } finally {
+            mirroringSuspended = false;
+        }
+    }
+
+    /**
+     * Build the trigram index of a large loaded document and, if enabled, encode
+     * its text into compact storage, both off the FX thread. The document only
+     * takes the results if it was not edited in the meantime.
+     */
+    private void prepareInBackground(Document doc) {
+        Rope loaded = doc.snapshot();
+        boolean index = loaded.length() >= TRIGRAM_INDEX_MIN_LENGTH;
+        boolean compact = preferencesManager.isCompactStorage();
+        if (!index && !compact) return;
+
+        CompletableFuture.runAsync(() -> {
+            TrigramIndex trigrams = index ? new TrigramIndex(loaded) : null;
+            CompactText encoded = compact ? CompactText.encode(loaded) : null;
+            Platform.runLater(() -> {
+                // Indexing first: compacting replaces the snapshot both are checked against
+                if (trigrams != null) doc.enableTrigramIndex(loaded, trigrams);
+                if (encoded != null) doc.compact(loaded, encoded);
+            });
+        });
+    }
+
+    private void cancelLoading() {
+        if (loadTask != null) {
+            loadTask.cancel();
+            loadTask = null;
+            statusPrefix = "Ready";
+        }
+    }
+
+    /**
+     * Streams loader events onto the FX thread. Events from a load that has since
+     * been cancelled or replaced are dropped.
+     */
+    private class EditorLoadListener implements ChunkedFileLoader.Listener {
+        // Assigned on the FX thread right after the load starts, before any event is handled
+        private ChunkedFileLoader.LoadTask task;
+
+        private boolean isCurrent() {
+            return task != null && task == loadTask && !task.isCancelled();
+        }
+
+        @Override
+        public void onChunk(String chunk) {
+            Platform.runLater(() -> {
+                if (isCurrent()) textArea.appendText(chunk);
+            });
+        }
+
+        @Override
+        public void onProgress(long bytesRead, long totalBytes) {
+            int percent = totalBytes == 0 ? 100 : (int) (bytesRead * 100 / totalBytes);
+            Platform.runLater(() -> {
+                if (isCurrent()) {
+                    statusPrefix = "Loading " + percent + "%";
+                    updateStatusBar();
+                }
+            });
+        }
+
+        @Override
+        public void onComplete(boolean cancelled) {
+            Platform.runLater(() -> {
+                if (!cancelled && isCurrent()) {
+                    loadTask = null;
+                    statusPrefix = "Ready";
+                    Document doc = documentManager.getCurrentDocument();
+                    if (doc != null) {
+                        prepareInBackground(doc);
+                    }
+                    textArea.getUndoManager().forgetHistory();
+                    textArea.moveTo(0);
+                    updateStatusBar();
+                }
+            });
+        }
+
+        @Override
+        public void onError(IOException error) {
+            Platform.runLater(() -> {
+                if (!isCurrent()) return;
+                cancelLoading();
+                showAlert("Open File", "Could not read file: " + error.getMessage());
+            });
+        }
+    }
+
+    /**
+     * Replace every match on the search thread; the result is applied in one edit
+     * once the search completes.
+     */
+    private void startReplaceAll(String find, String replace, boolean caseSensitive, boolean regex) {
+        Document doc = documentManager.getCurrentDocument();
+        if (doc == null) return;
+
+        Set<SearchOption> options = EnumSet.noneOf(SearchOption.class);
+        if (caseSensitive) options.add(SearchOption.CASE_SENSITIVE);
+        if (regex) options.add(SearchOption.USE_REGEX);
+        replaceTask = searchService.replaceAll(doc.snapshot(), find, replace, options, new ReplaceListener(doc));
+    }
+
+    private void cancelReplace() {
+        if (replaceTask != null) {
+            replaceTask.cancel();
+            replaceTask = null;
+            statusPrefix = "Ready";
+        }
+    }
+
+    /**
+     * Reports replace progress in the status bar and builds the replaced content
+     * with its indexes on the search thread. The FX thread only swaps it in, unless
+     * the task was cancelled or the document was edited after the search started.
+     */
+    private class ReplaceListener implements SearchService.Listener {
+        private final Rope base;
+        private final boolean compact;
+        private final boolean indexed;
+
+        ReplaceListener(Document doc) {
+            this.base = doc.snapshot();
+            this.compact = doc.isCompactStorage() || doc.isCompacted();
+            this.indexed = doc.getTrigramIndex() != null || base.length() >= TRIGRAM_INDEX_MIN_LENGTH;
+        }
+
+        @Override
+        public void onProgress(SearchService.Task task, int searched, int total) {
+            int percent = total == 0 ? 100 : (int) ((long) searched * 100 / total);
+            Platform.runLater(() -> {
+                if (task == replaceTask) {
+                    statusPrefix = "Replacing " + percent + "%";
+                    updateStatusBar();
+                }
+            });
+        }
+
+        @Override
+        public void onComplete(SearchService.Task task, RegexGuard.Status status, ReplacementSet replacements) {
+            // One pass over the snapshot instead of one piece-table edit per match
+            Document.Content replaced = status == RegexGuard.Status.COMPLETED && !replacements.isEmpty()
+                    ? new Document.Content(replacements.applyTo(base), compact, indexed)
+                    : null;
+            Platform.runLater(() -> {
+                if (task != replaceTask) return;
+                replaceTask = null;
+                statusPrefix = "Ready";
+
+                Document doc = documentManager.getCurrentDocument();
+                if (status != RegexGuard.Status.COMPLETED) {
+                    showAlert("Replace", "Replace stopped before it finished: " + status);
+                } else if (replacements.isEmpty()) {
+                    showAlert("Replace Complete", "No matches found");
+                } else if (doc == null || !doc.setContent(base, replaced)) {
+                    showAlert("Replace", "The document changed during the search; nothing was replaced");
+                } else {
+                    withoutMirroring(() -> ReplacementEdit.apply(textArea, replacements));
+                    showAlert("Replace Complete", replacements.size() + " occurrence(s) replaced");
+                }
+                updateStatusBar();
+            });
+        }
+    }
+
+    /**
+     * Streams incremental find results onto the FX thread as match highlights,
+     * selecting the first match. Results of superseded queries are dropped.
+     * Regex queries run under the regex budget on the guard's worker thread and
+     * report why they stopped if they did not finish.
+     */
+    private class FindHighlighter implements IncrementalSearch.Listener {
+        private final Label countLabel;
+        private final List<Selection<String, String, TextStyle>> highlights = new ArrayList<>();
+        private int found;
+        private RegexGuard.SearchTask regexTask;
+        private int regexGeneration;
+
+        FindHighlighter(Label countLabel) {
+            this.countLabel = countLabel;
+        }
+
+        void search(String query, boolean caseSensitive, boolean regex) {
+            clear();
+            Document doc = documentManager.getCurrentDocument();
+            if (doc == null || query.isEmpty()) {
+                incrementalSearch.cancel();
+                countLabel.setText("");
+                return;
+            }
+            countLabel.setText("Searching...");
+            if (regex) {
+                incrementalSearch.cancel();
+                searchRegex(doc, query, caseSensitive);
+                return;
+            }
+
+            // Large documents are only scanned where the index says the query can start
+            List<int[]> ranges = null;
+            TrigramIndex index = doc.getTrigramIndex();
+            if (index != null) {
+                ranges = new ArrayList<>();
+                index.findCandidates(query, ranges);
+            }
+            incrementalSearch.search(doc.snapshot(), query, caseSensitive, ranges, this);
+        }
+
+        private void searchRegex(Document doc, String query, boolean caseSensitive) {
+            int generation = ++regexGeneration;
+            regexSearch.setOption(SearchOption.CASE_SENSITIVE, caseSensitive);
+            regexTask = regexSearch.findAllGuarded(doc.snapshot(), query, result -> Platform.runLater(() -> {
+                if (generation != regexGeneration) return;
+
+                regexTask = null;
+                MatchResultSet matches = result.getMatches();
+                for (int i = 0; i < matches.size() && highlights.size() < MAX_FIND_HIGHLIGHTS; i++) {
+                    highlight(matches.getStart(i), matches.getEnd(i));
+                }
+                found = matches.size();
+                if (result.getStatus() == RegexGuard.Status.INVALID_PATTERN) {
+                    countLabel.setText("Invalid pattern");
+                } else if (!result.isComplete()) {
+                    countLabel.setText(found + " matches (search stopped: " + result.getStatus() + ")");
+                } else {
+                    countLabel.setText(found == 0 ? "No matches" : found == 1 ? "1 match" : found + " matches");
+                }
+            }));
+        }
+
+        void clear() {
+            if (regexTask != null) {
+                regexTask.cancel();
+                regexTask = null;
+            }
+            regexGeneration++;
+            for (Selection<String, String, TextStyle> highlight : highlights) {
+                textArea.removeSelection(highlight);
+                highlight.dispose();
+            }
+            highlights.clear();
+            found = 0;
+        }
+
+        // Draws one match; the first is also selected
+        private void highlight(int start, int end) {
+            if (highlights.isEmpty()) {
+                textArea.selectRange(start, end);
+                textArea.requestFollowCaret();
+            }
+            Selection<String, String, TextStyle> highlight = new SelectionImpl<>(
+                    "find-match-" + highlights.size(), textArea,
+                    path -> {
+                        path.setStroke(Color.DARKORANGE);
+                        path.setStrokeWidth(1);
+                    });
+            highlight.selectRange(start, end);
+            textArea.addSelection(highlight);
+            highlights.add(highlight);
+        }
+
+        @Override
+        public void onMatches(IncrementalSearch.Query query, int[] starts) {
+            Platform.runLater(() -> {
+                if (!query.isCurrent()) return;
+
+                int length = query.getText().length();
+                // Only a bounded number of highlights are drawn; the count covers all matches
+                for (int i = 0; i < starts.length && highlights.size() < MAX_FIND_HIGHLIGHTS; i++) {
+                    highlight(starts[i], starts[i] + length);
+                }
+                found += starts.length;
+                countLabel.setText(found + " matches...");
+            });
+        }
+
+        @Override
+        public void onComplete(IncrementalSearch.Query query, int total) {
+            Platform.runLater(() -> {
+                if (!query.isCurrent()) return;
+                countLabel.setText(total == 0 ? "No matches" : total == 1 ? "1 match" : total + " matches");
+            });
+        }
+    }
+
     private void updateFormattingToolbar() {
         int start = textArea.getSelection().getStart();
         int end = textArea.getSelection().getEnd();
 
         if (start == end) return;
 
-        String style = textArea.getStyle(start, end);
-
-        boldBtn.setSelected(style.contains("bold"));
-        italicBtn.setSelected(style.contains("italic"));
-        underlineBtn.setSelected(style.contains("underline: true"));
-        strikeBtn.setSelected(style.contains("strikethrough: true"));
+        boldBtn.setSelected(textArea.allHave(start, end, TextStyle.BOLD));
+        italicBtn.setSelected(textArea.allHave(start, end, TextStyle.ITALIC));
+        underlineBtn.setSelected(textArea.allHave(start, end, TextStyle.UNDERLINE));
+        strikeBtn.setSelected(textArea.allHave(start, end, TextStyle.STRIKETHROUGH));
     }
 
     private String toHexString(Color color) {
@@ -560,10 +1041,24 @@ public class MainController {
         TextField replaceField = new TextField();
         replaceField.setPromptText("Replace with:");
 
+        CheckBox matchCase = new CheckBox("Match case");
+        CheckBox useRegex = new CheckBox("Regular expression");
+        Label matchCountLabel = new Label();
+
         grid.add(new Label("Find:"), 0, 0);
         grid.add(findField, 1, 0);
         grid.add(new Label("Replace:"), 0, 1);
         grid.add(replaceField, 1, 1);
+        grid.add(matchCase, 1, 2);
+        grid.add(useRegex, 1, 3);
+        grid.add(matchCountLabel, 1, 4);
+
+        // Highlight matches as the user types
+        FindHighlighter highlighter = new FindHighlighter(matchCountLabel);
+        Runnable search = () -> highlighter.search(findField.getText(), matchCase.isSelected(), useRegex.isSelected());
+        findField.textProperty().addListener((obs, oldText, newText) -> search.run());
+        matchCase.selectedProperty().addListener((obs, oldValue, newValue) -> search.run());
+        useRegex.selectedProperty().addListener((obs, oldValue, newValue) -> search.run());
 
         dialog.getDialogPane().setContent(grid);
         dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
@@ -573,24 +1068,26 @@ public class MainController {
                 String find = findField.getText();
                 String replace = replaceField.getText();
                 if (!find.isEmpty()) {
-                    String newText = textArea.getText().replace(find, replace);
-                    textArea.clear();
-                    textArea.appendText(newText);
-                    showAlert("Replace Complete", "Text replaced successfully");
+                    startReplaceAll(find, replace, matchCase.isSelected(), useRegex.isSelected());
                 }
             }
             return null;
         });
 
         dialog.showAndWait();
+        incrementalSearch.cancel();
+        highlighter.clear();
     }
 
     private void showStatistics() {
-        String text = textArea.getText();
-        int words = text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
-        int chars = text.length();
-        int lines = text.isEmpty() ? 1 : text.split("\n", -1).length;
-        int paragraphs = text.isEmpty() ? 1 : text.split("\n\n", -1).length;
+        Document doc = documentManager.getCurrentDocument();
+        if (doc == null) return;
+
+        Document.DocumentStats stats = doc.getStatistics();
+        int words = stats.words;
+        int chars = stats.characters;
+        int lines = stats.lines;
+        int paragraphs = stats.paragraphs;
 
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Document Statistics");
@@ -612,7 +1109,7 @@ public class MainController {
         TextArea infoArea = new TextArea(
                 "Document created today\n" +
                         "Status: Unsaved\n" +
-                        "Size: " + textArea.getText().length() + " characters"
+                        "Size: " + textArea.getLength() + " characters"
         );
         infoArea.setEditable(false);
         infoArea.setPrefHeight(200);
@@ -674,27 +1171,3 @@ public class MainController {
         alert.showAndWait();
     }
 }
-
-// FileHandler Implementation
-class FileHandlerImpl implements com.texteditor.util.FileHandler {
-    @Override
-    public Document loadDocument(String filePath) {
-        return new Document(filePath);
-    }
-
-    @Override
-    public boolean saveDocument(Document document) {
-        System.out.println("Saving: " + document.getFilePath());
-        return true;
-    }
-
-    @Override
-    public boolean deleteFile(String filePath) {
-        return false;
-    }
-
-    @Override
-    public boolean fileExists(String filePath) {
-        return new java.io.File(filePath).exists();
-    }
-}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.texteditor.ui;
+
+import com.texteditor.engine.ReplacementSet;
+import org.fxmisc.richtext.GenericStyledArea;
+import org.fxmisc.richtext.MultiChangeBuilder;
+
+/**
+ * Applies a {@link ReplacementSet} to a text area in place.
+ * Each match becomes its own ranged replacement, so the untouched text keeps
+ * its style spans and only the changed paragraphs are laid out again. All
+ * replacements are committed as one multi-change, which is a single undo step.
+ * The area reports every match as a separate change; a mirrored document should
+ * skip those and take the whole set at once through {@link ReplacementSet#applyTo}.
+ */
+public final class ReplacementEdit {
+
+    private ReplacementEdit() {
+    }
+
+    /**
+     * Replace every match in {@code area}, whose text must be the text the
+     * replacements were computed from.
+     */
+    public static void apply(GenericStyledArea<?, ?, ?> area, ReplacementSet replacements) {
+        if (replacements.isEmpty()) return;
+
+        MultiChangeBuilder<?, ?, ?> change = area.createMultiChange(replacements.size());
+        // Back to front, so every offset still refers to the original text
+        for (int i = replacements.size() - 1; i >= 0; i--) {
+            change.replaceText(replacements.getStart(i), replacements.getEnd(i), replacements.getReplacement(i));
+        }
+        change.commit();
+    }
+}
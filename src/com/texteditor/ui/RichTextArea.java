@@ -0,0 +1,49 @@
+package com.texteditor.ui;
+
+import com.texteditor.model.TextStyle;
+import javafx.scene.text.TextFlow;
+import org.fxmisc.richtext.StyledTextArea;
+import org.fxmisc.richtext.model.StyleSpan;
+import org.fxmisc.richtext.model.StyleSpans;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Text area whose segments carry a typed {@link TextStyle} instead of a CSS string.
+ * Paragraph styles stay inline CSS. Each text node is styled with the cached CSS
+ * of its canonical style, so no style text is built or parsed per span.
+ */
+public class RichTextArea extends StyledTextArea<String, TextStyle> {
+
+    public RichTextArea() {
+        super("", TextFlow::setStyle, TextStyle.EMPTY, (text, style) -> text.setStyle(style.toCss()));
+    }
+
+    /**
+     * Replace the style of every span in [start, end) with {@code update} applied
+     * to it. Costs one pass over the spans in the range and a single style change.
+     */
+    public void restyle(int start, int end, UnaryOperator<TextStyle> update) {
+        if (start >= end) return;
+        setStyleSpans(start, getStyleSpans(start, end).mapStyles(update));
+    }
+
+    /**
+     * Start collecting style changes to apply as one update.
+     */
+    public FormattingTransaction beginFormatting() {
+        return new FormattingTransaction(this);
+    }
+
+    /**
+     * True if every character in [start, end) has all bits of {@code flag} set.
+     */
+    public boolean allHave(int start, int end, int flag) {
+        if (start >= end) return false;
+        StyleSpans<TextStyle> spans = getStyleSpans(start, end);
+        for (StyleSpan<TextStyle> span : spans) {
+            if (span.getLength() > 0 && !span.getStyle().has(flag)) return false;
+        }
+        return true;
+    }
+}
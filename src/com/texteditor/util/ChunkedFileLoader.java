@@ -0,0 +1,131 @@
+package com.texteditor.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streams a text file into the editor in fixed-size decoded chunks.
+ * Decoding runs on a background executor; each chunk is handed to the consumer
+ * as soon as it is ready so the first screen can be shown long before the whole
+ * file is read. Loads report progress and can be cancelled.
+ */
+public class ChunkedFileLoader {
+
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Receives load events on the loader thread.
+     */
+    public interface Listener {
+        void onChunk(String chunk);
+
+        void onProgress(long bytesRead, long totalBytes);
+
+        void onComplete(boolean cancelled);
+
+        void onError(IOException error);
+    }
+
+    /**
+     * Handle for a running load.
+     */
+    public static class LoadTask {
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() { return cancelled; }
+
+        public boolean isDone() {
+            Future<?> f = future;
+            return f != null && f.isDone();
+        }
+    }
+
+    private final ExecutorService executor;
+
+    public ChunkedFileLoader() {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chunked-file-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public LoadTask load(Path path, Listener listener) {
+        return load(path, StandardCharsets.UTF_8, listener);
+    }
+
+    public LoadTask load(Path path, Charset charset, Listener listener) {
+        LoadTask task = new LoadTask();
+        task.future = executor.submit(() -> run(path, charset, listener, task));
+        return task;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Path path, Charset charset, Listener listener, LoadTask task) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long total = channel.size();
+            long read = 0;
+
+            while (!task.cancelled) {
+                int n = channel.read(bytes);
+                boolean endOfInput = n < 0;
+                if (n > 0) read += n;
+
+                // A chunk is emitted every time the char buffer fills up
+                bytes.flip();
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, chars, endOfInput);
+                    if (result.isOverflow()) emit(chars, listener);
+                } while (result.isOverflow() && !task.cancelled);
+                bytes.compact();
+
+                if (endOfInput) {
+                    while (decoder.flush(chars).isOverflow()) {
+                        emit(chars, listener);
+                    }
+                    emit(chars, listener);
+                    break;
+                }
+                listener.onProgress(read, total);
+            }
+            listener.onComplete(task.cancelled);
+        } catch (IOException e) {
+            listener.onError(e);
+        }
+    }
+
+    private void emit(CharBuffer chars, Listener listener) {
+        chars.flip();
+        if (chars.hasRemaining()) {
+            listener.onChunk(chars.toString());
+        }
+        chars.clear();
+    }
+}
@@ -12,6 +12,7 @@ public class Constants {
     public static final String TEXT_FILE_EXTENSION = ".txt";
     public static final String RTF_FILE_EXTENSION = ".rtf";
     public static final String JTX_FILE_EXTENSION = ".jtx";
+    public static final String HTML_FILE_EXTENSION = ".html";
 
     // UI Dimensions
     public static final int MIN_WINDOW_WIDTH = 800;
@@ -0,0 +1,273 @@
+package com.texteditor.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-only, memory-mapped view of a text file of any size.
+ * The file is mapped in fixed windows and only the lines actually requested are
+ * decoded. Line starts are indexed lazily by a background thread; lines become
+ * readable as soon as the indexer has passed them. Only every
+ * {@value #LINES_PER_CHECKPOINT}th line start is kept, so the index costs a
+ * fraction of a byte per line; other lines are found by scanning forward from
+ * the nearest checkpoint or from the line read last.
+ */
+public class MappedTextFile implements Closeable {
+
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int CACHED_WINDOWS = 4;
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+    private static final int LINES_PER_CHECKPOINT = 64;
+
+    private final Path path;
+    private final Charset charset;
+    private final FileChannel channel;
+    private final long size;
+
+    // Windows recently used by readers, in access order
+    private final Map<Long, MappedByteBuffer> windows;
+
+    // Start byte offset of every LINES_PER_CHECKPOINT-th line; written only by the
+    // indexer, published through lineCount
+    private volatile long[] checkpoints;
+    private volatile int lineCount;
+    private volatile boolean indexComplete;
+    private volatile IOException indexFailure;
+    private volatile boolean closed;
+    private Thread indexer;
+
+    // The line read last, so reading the next one scans only from its end
+    private volatile LinePosition lastLine;
+
+    private static final class LinePosition {
+        final int line;
+        final long start;
+        final long next;
+
+        LinePosition(int line, long start, long next) {
+            this.line = line;
+            this.start = start;
+            this.next = next;
+        }
+    }
+
+    public MappedTextFile(Path path) throws IOException {
+        this(path, StandardCharsets.UTF_8);
+    }
+
+    public MappedTextFile(Path path, Charset charset) throws IOException {
+        this.path = path;
+        this.charset = charset;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windows = new LinkedHashMap<>(CACHED_WINDOWS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MappedByteBuffer> eldest) {
+                return size() > CACHED_WINDOWS;
+            }
+        };
+        this.checkpoints = new long[1024];
+        this.lineCount = 1;
+    }
+
+    /**
+     * Start indexing line starts on a daemon thread.
+     * The listener is invoked from that thread after each window and once more when
+     * indexing completes or fails.
+     */
+    public synchronized void startIndexing(Runnable progressListener) {
+        if (indexer != null) return;
+
+        indexer = new Thread(() -> buildIndex(progressListener), "line-indexer-" + path.getFileName());
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    public Path getPath() { return path; }
+
+    public long getSize() { return size; }
+
+    /**
+     * Number of lines known to be complete; the last indexed line may still grow
+     * until indexing finishes.
+     */
+    public int getAvailableLineCount() {
+        boolean complete = indexComplete;
+        int count = lineCount;
+        return complete ? count : count - 1;
+    }
+
+    public boolean isIndexComplete() { return indexComplete; }
+
+    /**
+     * The error that stopped indexing, or null. The index is then never complete;
+     * the lines found before the error stay readable.
+     */
+    public IOException getIndexFailure() { return indexFailure; }
+
+    /**
+     * Decode a single line, without its terminator.
+     * Lines longer than {@value #MAX_LINE_BYTES} bytes are truncated at the last
+     * whole character before that limit.
+     */
+    public String getLine(int line) throws IOException {
+        int count = lineCount;
+        if (line < 0 || line >= count) {
+            throw new IndexOutOfBoundsException("line " + line + ", indexed lines " + count);
+        }
+        LinePosition position = locate(line);
+        long start = position.start;
+        long end = position.next;
+        if (end > start && byteAt(end - 1) == '\n') end--;
+        if (end > start && byteAt(end - 1) == '\r') end--;
+
+        boolean truncated = end - start > MAX_LINE_BYTES;
+        byte[] bytes = new byte[(int) Math.min(end - start, MAX_LINE_BYTES)];
+        readBytes(start, bytes);
+        return decode(bytes, truncated);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (windows) {
+            windows.clear();
+        }
+        channel.close();
+    }
+
+    // Line lookup
+
+    private LinePosition locate(int line) throws IOException {
+        LinePosition last = lastLine;
+        if (last != null && last.line == line) return last;
+
+        int current;
+        long start;
+        int checkpointLine = line - line % LINES_PER_CHECKPOINT;
+        if (last != null && last.line < line && last.line >= checkpointLine) {
+            current = last.line + 1;
+            start = last.next;
+        } else {
+            current = checkpointLine;
+            start = checkpoints[line / LINES_PER_CHECKPOINT];
+        }
+        for (; current < line; current++) {
+            start = nextLineStart(start);
+        }
+
+        LinePosition position = new LinePosition(line, start, nextLineStart(start));
+        lastLine = position;
+        return position;
+    }
+
+    // Offset just past the next newline at or after position, or the file size
+    private long nextLineStart(long position) throws IOException {
+        while (position < size) {
+            long windowStart = position - position % WINDOW_SIZE;
+            MappedByteBuffer buffer = window(position / WINDOW_SIZE);
+            int limit = buffer.limit();
+            for (int i = (int) (position - windowStart); i < limit; i++) {
+                if (buffer.get(i) == '\n') return windowStart + i + 1;
+            }
+            position = windowStart + limit;
+        }
+        return size;
+    }
+
+    // A truncated line may end inside a multi-byte character; the decoder leaves
+    // such an incomplete sequence unconsumed when not told the input has ended
+    private String decode(byte[] bytes, boolean truncated) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer out = CharBuffer.allocate((int) (bytes.length * (double) decoder.maxCharsPerByte()) + 1);
+        decoder.decode(ByteBuffer.wrap(bytes), out, !truncated);
+        if (!truncated) decoder.flush(out);
+        out.flip();
+        return out.toString();
+    }
+
+    // Window access
+
+    private MappedByteBuffer window(long index) throws IOException {
+        synchronized (windows) {
+            MappedByteBuffer buffer = windows.get(index);
+            if (buffer == null) {
+                long position = index * WINDOW_SIZE;
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+                windows.put(index, buffer);
+            }
+            return buffer;
+        }
+    }
+
+    private byte byteAt(long position) throws IOException {
+        return window(position / WINDOW_SIZE).get((int) (position % WINDOW_SIZE));
+    }
+
+    private void readBytes(long position, byte[] target) throws IOException {
+        int copied = 0;
+        while (copied < target.length) {
+            long current = position + copied;
+            MappedByteBuffer buffer = window(current / WINDOW_SIZE);
+            int offset = (int) (current % WINDOW_SIZE);
+            int chunk = Math.min(target.length - copied, buffer.limit() - offset);
+            buffer.duplicate().position(offset).get(target, copied, chunk);
+            copied += chunk;
+        }
+    }
+
+    // Background line indexing
+
+    private void buildIndex(Runnable progressListener) {
+        try {
+            for (long position = 0; position < size && !closed; position += WINDOW_SIZE) {
+                // Mapped privately so the scan does not evict the reader's windows
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(WINDOW_SIZE, size - position));
+                int limit = buffer.limit();
+                for (int i = 0; i < limit; i++) {
+                    if (buffer.get(i) == '\n' && position + i + 1 < size) {
+                        countLineStart(position + i + 1);
+                    }
+                }
+                progressListener.run();
+            }
+            indexComplete = true;
+        } catch (IOException e) {
+            // Closing the file stops the scan on purpose
+            if (!closed) {
+                indexFailure = e;
+            }
+        }
+        progressListener.run();
+    }
+
+    private void countLineStart(long offset) {
+        int count = lineCount;
+        if (count % LINES_PER_CHECKPOINT == 0) {
+            int checkpoint = count / LINES_PER_CHECKPOINT;
+            long[] starts = checkpoints;
+            if (checkpoint == starts.length) {
+                starts = Arrays.copyOf(starts, checkpoint * 2);
+                checkpoints = starts;
+            }
+            starts[checkpoint] = offset;
+        }
+        lineCount = count + 1;
+    }
+}
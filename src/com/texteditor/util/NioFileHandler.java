@@ -0,0 +1,89 @@
+package com.texteditor.util;
+
+import com.texteditor.model.CompactText;
+import com.texteditor.model.Document;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * NIO-based {@link FileHandler} reading and writing UTF-8 text files.
+ * Saving streams the document's piece table in small chunks instead of
+ * building the full text as one String. With compact storage on, pure-ASCII
+ * files are read straight into off-heap {@link CompactText}.
+ */
+public class NioFileHandler implements FileHandler {
+
+    private static final int WRITE_BUFFER_SIZE = 8192;
+
+    private final boolean compactStorage;
+
+    public NioFileHandler() {
+        this(false);
+    }
+
+    public NioFileHandler(boolean compactStorage) {
+        this.compactStorage = compactStorage;
+    }
+
+    @Override
+    public Document loadDocument(String filePath) {
+        try {
+            Path path = Paths.get(filePath);
+            Document document = new Document(filePath);
+            document.setCompactStorage(compactStorage);
+
+            CompactText compact = compactStorage ? CompactText.readAscii(path) : null;
+            if (compact != null) {
+                document.setContent(compact);
+            } else {
+                document.setContent(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+            }
+            document.setTitle(path.getFileName().toString());
+            return document;
+        } catch (IOException e) {
+            System.err.println("Error loading " + filePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean saveDocument(Document document) {
+        if (document.getFilePath() == null) return false;
+
+        try (Writer writer = Files.newBufferedWriter(Paths.get(document.getFilePath()), StandardCharsets.UTF_8)) {
+            CharSequence text = document.getText();
+            char[] buffer = new char[WRITE_BUFFER_SIZE];
+            for (int start = 0; start < text.length(); start += buffer.length) {
+                int end = Math.min(text.length(), start + buffer.length);
+                for (int i = start; i < end; i++) {
+                    buffer[i - start] = text.charAt(i);
+                }
+                writer.write(buffer, 0, end - start);
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving " + document.getFilePath() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean deleteFile(String filePath) {
+        try {
+            return Files.deleteIfExists(Paths.get(filePath));
+        } catch (IOException e) {
+            System.err.println("Error deleting " + filePath + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean fileExists(String filePath) {
+        return Files.exists(Paths.get(filePath));
+    }
+}
@@ -0,0 +1,23 @@
+package com.texteditor;
+
+import java.util.Random;
+
+/**
+ * Random text for the tests that check a structure against a plain reference.
+ */
+public final class TestTexts {
+
+    private TestTexts() {
+    }
+
+    /**
+     * {@code length} chars drawn uniformly from {@code alphabet}.
+     */
+    public static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.texteditor.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.texteditor.TestTexts.randomText;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AhoCorasickTest {
+
+    @Test
+    void findsEveryOverlappingOccurrence() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            boolean caseSensitive = round % 2 == 0;
+            boolean wholeWords = round % 3 == 0;
+            List<String> terms = randomTerms(random, "abAB", 1 + random.nextInt(20));
+            String text = randomText(random, "abAB _", random.nextInt(2_000));
+
+            AhoCorasick automaton = AhoCorasick.compile(terms, caseSensitive);
+            List<String> actual = new ArrayList<>();
+            long lastEnd = 0;
+            for (AhoCorasick.Match match : automaton.findAll(text, wholeWords)) {
+                assertTrue(match.getEnd() >= lastEnd, "matches are ordered by end offset");
+                lastEnd = match.getEnd();
+                actual.add(match.getStart() + ":" + match.getEnd() + ":" + match.getTermIndex());
+            }
+
+            List<String> expected = naive(text, terms, caseSensitive, wholeWords);
+            actual.sort(null);
+            expected.sort(null);
+            assertEquals(expected, actual, "round " + round);
+        }
+    }
+
+    @Test
+    void termIndicesReferToTheList() {
+        AhoCorasick automaton = AhoCorasick.compile(List.of("he", "she", "his", "hers"), true);
+        assertEquals(4, automaton.getTermCount());
+        assertEquals("his", automaton.getTerm(2));
+
+        List<AhoCorasick.Match> matches = automaton.findAll("ushers", false);
+        assertEquals(3, matches.size());
+        for (AhoCorasick.Match match : matches) {
+            assertEquals(automaton.getTerm(match.getTermIndex()),
+                    "ushers".substring(match.getStart(), match.getEnd()));
+        }
+    }
+
+    @Test
+    void keepsItsOwnCopyOfTheTerms() {
+        List<String> terms = new ArrayList<>(List.of("cat", "dog"));
+        AhoCorasick automaton = AhoCorasick.compile(terms, true);
+        terms.set(0, "cow");
+        assertEquals("cat", automaton.getTerm(0));
+        assertEquals(1, automaton.findAll("a cat", false).size());
+    }
+
+    @Test
+    void emptyTermsNeverMatch() {
+        AhoCorasick automaton = AhoCorasick.compile(List.of("", "a"), true);
+        assertEquals(2, automaton.findAll("aa", false).size());
+        assertTrue(AhoCorasick.compile(List.of(), true).findAll("abc", false).isEmpty());
+    }
+
+    // Overlapping occurrences found with a lookahead, one term at a time
+    private static List<String> naive(String text, List<String> terms, boolean caseSensitive, boolean wholeWords) {
+        List<String> matches = new ArrayList<>();
+        for (int t = 0; t < terms.size(); t++) {
+            String term = terms.get(t);
+            if (!caseSensitive && isFoldedDuplicate(terms, t)) continue;
+            String boundary = wholeWords ? "\\b" : "";
+            Pattern pattern = Pattern.compile("(?=" + boundary + Pattern.quote(term) + boundary + ")",
+                    caseSensitive ? 0 : Pattern.CASE_INSENSITIVE);
+            Matcher m = pattern.matcher(text);
+            while (m.find()) {
+                matches.add(m.start() + ":" + (m.start() + term.length()) + ":" + t);
+            }
+        }
+        return matches;
+    }
+
+    // Terms equal ignoring case share a node, which reports the first of them
+    private static boolean isFoldedDuplicate(List<String> terms, int index) {
+        for (int i = 0; i < index; i++) {
+            if (terms.get(i).equalsIgnoreCase(terms.get(index))) return true;
+        }
+        return false;
+    }
+
+    private static List<String> randomTerms(Random random, String alphabet, int count) {
+        // Distinct terms, so every occurrence has exactly one index
+        Set<String> terms = new LinkedHashSet<>();
+        while (terms.size() < count) {
+            terms.add(randomText(random, alphabet, 1 + random.nextInt(4)));
+        }
+        return new ArrayList<>(terms);
+    }
+}
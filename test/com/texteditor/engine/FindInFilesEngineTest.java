@@ -0,0 +1,102 @@
+package com.texteditor.engine;
+
+import com.texteditor.engine.SearchReplaceEngine.SearchOption;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FindInFilesEngineTest {
+
+    @Test
+    void columnsCountFromTheLineStartAcrossWindows() throws Exception {
+        Path root = Files.createTempDirectory("find");
+        // One line far longer than the char window, with hits in later windows
+        String head = "head ".repeat(100);
+        String line = head + "x".repeat(2_500_000) + "needle" + "y".repeat(1_200_000) + "needle";
+        write(root.resolve("long.txt"), "first\n" + line + "\nneedle\n");
+
+        List<FindInFilesEngine.Hit> hits = searchAll(root, "needle", new FindInFilesEngine());
+        assertEquals(3, hits.size());
+        hits.sort((a, b) -> Long.compare(a.getLine() * 10_000_000L + a.getColumn(), b.getLine() * 10_000_000L + b.getColumn()));
+
+        int first = line.indexOf("needle");
+        assertEquals(2, hits.get(0).getLine());
+        assertEquals(first + 1, hits.get(0).getColumn());
+        assertEquals(line.substring(0, 200), hits.get(0).getPreview());
+        assertEquals(2, hits.get(1).getLine());
+        assertEquals(line.lastIndexOf("needle") + 1, hits.get(1).getColumn());
+        assertEquals(line.substring(0, 200), hits.get(1).getPreview());
+
+        assertEquals(3, hits.get(2).getLine());
+        assertEquals(1, hits.get(2).getColumn());
+        assertEquals("needle", hits.get(2).getPreview());
+    }
+
+    @Test
+    void literalMatchesAcrossABufferCutAreFound() throws Exception {
+        Path root = Files.createTempDirectory("find");
+        // No line break, so the 1M-char buffer is cut inside "needle"
+        int cut = 1 << 20;
+        write(root.resolve("cut.txt"), "x".repeat(cut - 3) + "needle" + "x".repeat(10) + "\nneedle\n");
+
+        List<FindInFilesEngine.Hit> hits = searchAll(root, "needle", new FindInFilesEngine());
+        assertEquals(2, hits.size());
+        hits.sort((a, b) -> Long.compare(a.getLine(), b.getLine()));
+        assertEquals(1, hits.get(0).getLine());
+        assertEquals(cut - 2, hits.get(0).getColumn());
+        assertEquals(2, hits.get(1).getLine());
+        assertEquals(1, hits.get(1).getColumn());
+    }
+
+    @Test
+    void matchesAcrossCutsDoNotOverlap() throws Exception {
+        Path root = Files.createTempDirectory("find");
+        // Every cut falls inside a run of the term, as in a single left-to-right pass
+        int length = 3 * (1 << 20) + 1;
+        write(root.resolve("run.txt"), "a".repeat(length) + "\n");
+
+        List<FindInFilesEngine.Hit> hits = searchAll(root, "aaa", new FindInFilesEngine());
+        assertEquals(length / 3, hits.size());
+        for (FindInFilesEngine.Hit hit : hits) {
+            assertEquals(1, hit.getColumn() % 3, "column " + hit.getColumn());
+        }
+    }
+
+    @Test
+    void aFullQueueDoesNotStallASingleWorker() throws Exception {
+        Path root = Files.createTempDirectory("find");
+        write(root.resolve("a.txt"), "hit\n".repeat(10_000));
+        write(root.resolve("b.jtx"), "hit\n".repeat(10_000));
+
+        List<FindInFilesEngine.Hit> hits = searchAll(root, "hit", new FindInFilesEngine(new ForkJoinPool(1)));
+        assertEquals(20_000, hits.size());
+    }
+
+    private static List<FindInFilesEngine.Hit> searchAll(Path root, String term, FindInFilesEngine engine)
+            throws InterruptedException {
+        FindInFilesEngine.Search search = engine.search(root, term, EnumSet.noneOf(SearchOption.class));
+        List<FindInFilesEngine.Hit> hits = new ArrayList<>();
+        while (!search.isFinished() || search.drainTo(hits, Integer.MAX_VALUE) > 0) {
+            search.drainTo(hits, 100);
+            Thread.sleep(1);
+        }
+        assertEquals(0, search.getFailureCount(), search.getFailures().toString());
+        assertEquals(hits.size(), search.getHitCount());
+        engine.shutdown();
+        return hits;
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        file.toFile().deleteOnExit();
+        file.getParent().toFile().deleteOnExit();
+    }
+}
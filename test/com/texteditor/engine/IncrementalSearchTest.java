@@ -0,0 +1,76 @@
+package com.texteditor.engine;
+
+import com.texteditor.model.TrigramIndex;
+import com.texteditor.util.IntList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalSearchTest {
+
+    @Test
+    void refinedAndNarrowedSearchesMatchAFullScan() throws InterruptedException {
+        Random random = new Random(13);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 300_000; i++) {
+            builder.append("abcAB \n".charAt(random.nextInt(7)));
+        }
+        String text = builder.toString();
+        TrigramIndex index = new TrigramIndex(text);
+        IncrementalSearch search = new IncrementalSearch();
+        try {
+            // Typed one char at a time, so later queries refine earlier ones;
+            // "aaa" overlaps itself, so its refinements drop overlapping matches
+            for (String typed : new String[] {"abcab", "aaa"}) {
+                String query = "";
+                for (char c : typed.toCharArray()) {
+                    query += c;
+                    List<int[]> ranges = new ArrayList<>();
+                    index.findCandidates(query, ranges);
+                    assertArrayEquals(replaced(text, query), await(search, text, query, ranges));
+                    assertArrayEquals(replaced(text, query), await(search, text, query, null));
+                }
+            }
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    private static int[] await(IncrementalSearch search, String text, String query, List<int[]> ranges)
+            throws InterruptedException {
+        IntList found = new IntList();
+        int[] total = new int[1];
+        CountDownLatch done = new CountDownLatch(1);
+        search.search(text, query, false, ranges, new IncrementalSearch.Listener() {
+            @Override
+            public void onMatches(IncrementalSearch.Query q, int[] starts) {
+                for (int start : starts) found.add(start);
+            }
+
+            @Override
+            public void onComplete(IncrementalSearch.Query q, int count) {
+                total[0] = count;
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(found.size(), total[0]);
+        return found.toArray();
+    }
+
+    // The case-insensitive matches a replace-all would change
+    private static int[] replaced(String text, String term) {
+        ReplacementSet replacements = new SearchReplaceEngine().findReplacements(text, term, "", () -> false, searched -> { });
+        int[] starts = new int[replacements.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = replacements.getStart(i);
+        }
+        return starts;
+    }
+}
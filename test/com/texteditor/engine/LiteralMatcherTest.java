@@ -0,0 +1,102 @@
+package com.texteditor.engine;
+
+import com.texteditor.util.IntList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiteralMatcherTest {
+
+    @Test
+    void collidingShiftsNeverSkipAMatch() {
+        // 'a', U+0161 and U+0261 share a low byte, so their shifts share a table slot
+        List<String> needles = allStrings("aš\u0261", 3);
+        needles.remove("");
+        List<String> texts = allStrings("aš\u0261Š", 5);
+        for (boolean caseSensitive : new boolean[] {true, false}) {
+            for (String needle : needles) {
+                LiteralMatcher matcher = LiteralMatcher.of(needle, caseSensitive);
+                for (String text : texts) {
+                    assertEquals(naiveIndexOf(text, needle, caseSensitive, 0, text.length()), matcher.indexOf(text, 0),
+                            needle + " in " + text);
+                }
+            }
+        }
+    }
+
+    @Test
+    void boundedSearchOnlyFindsMatchesInsideTheRange() {
+        LiteralMatcher matcher = LiteralMatcher.of("abc", true);
+        String text = "xabcxabcx";
+        assertEquals(1, matcher.indexOf(text, 0, 4));
+        assertEquals(-1, matcher.indexOf(text, 0, 3));
+        assertEquals(5, matcher.indexOf(text, 2, 8));
+        assertEquals(-1, matcher.indexOf(text, 2, 7));
+        assertEquals(-1, matcher.indexOf(text, 5, 5));
+        assertEquals(-1, matcher.indexOf(text, 8, 3));
+    }
+
+    @Test
+    void caseFoldingAndNonOverlapMatchTheRegexEngine() {
+        // Sigma's three forms and the Kelvin sign fold together under UNICODE_CASE
+        String[] texts = {"ΣΑΣ σας ς", "kelvin \u212Aelvin KELVIN", "aaaaa", "AaAaA"};
+        String[] terms = {"σ", "ς", "ΣΑΣ", "Σας", "kelvin", "\u212A", "aa", "aaa"};
+        for (boolean caseSensitive : new boolean[] {true, false}) {
+            int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+            for (String term : terms) {
+                for (String text : texts) {
+                    IntList actual = new IntList();
+                    LiteralMatcher.of(term, caseSensitive).findAll(text, actual);
+
+                    Matcher m = Pattern.compile(Pattern.quote(term), flags).matcher(text);
+                    IntList expected = new IntList();
+                    while (m.find()) {
+                        expected.add(m.start());
+                    }
+                    assertArrayEquals(expected.toArray(), actual.toArray(), term + " in " + text);
+                }
+            }
+        }
+    }
+
+    @Test
+    void emptyTermNeverMatches() {
+        LiteralMatcher matcher = LiteralMatcher.of("", true);
+        assertEquals(-1, matcher.indexOf("abc", 0));
+        IntList found = new IntList();
+        matcher.findAll("abc", found);
+        assertTrue(found.isEmpty());
+    }
+
+    // Every string over the alphabet up to the given length, the empty one included
+    private static List<String> allStrings(String alphabet, int maxLength) {
+        List<String> strings = new ArrayList<>();
+        strings.add("");
+        for (int from = 0; from < strings.size(); from++) {
+            String prefix = strings.get(from);
+            if (prefix.length() == maxLength) continue;
+            for (int i = 0; i < alphabet.length(); i++) {
+                strings.add(prefix + alphabet.charAt(i));
+            }
+        }
+        return strings;
+    }
+
+    private static int naiveIndexOf(String text, String term, boolean caseSensitive, int from, int to) {
+        for (int i = from; i + term.length() <= to; i++) {
+            boolean match = true;
+            for (int j = 0; j < term.length() && match; j++) {
+                char a = text.charAt(i + j);
+                char b = term.charAt(j);
+                match = caseSensitive ? a == b : LiteralMatcher.foldCase(a) == LiteralMatcher.foldCase(b);
+            }
+            if (match) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,102 @@
+package com.texteditor.engine;
+
+import com.texteditor.engine.SearchReplaceEngine.SearchOption;
+import com.texteditor.util.IntList;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSearchTest {
+
+    private static final int LENGTH = ParallelSearch.SEQUENTIAL_THRESHOLD + 123_457;
+
+    // Small parallelism keeps chunks at the minimum size, so there are many boundaries
+    private final ParallelSearch search = new ParallelSearch(new ForkJoinPool(4), PatternCache.shared());
+
+    @Test
+    void chunkedSearchMatchesSequentialSearch() {
+        Random random = new Random(3);
+        String text = runsOfA(random);
+        String[] terms = {"a", "aa", "aaa", "aab", "b a", "AB", "ba b"};
+        for (String term : terms) {
+            for (int mode = 0; mode < 4; mode++) {
+                Set<SearchOption> options = EnumSet.noneOf(SearchOption.class);
+                if ((mode & 1) != 0) options.add(SearchOption.CASE_SENSITIVE);
+                if ((mode & 2) != 0) options.add(SearchOption.WHOLE_WORDS_ONLY);
+                assertTrue(ParallelSearch.isChunkable(text, term, options));
+
+                IntList actual = new IntList();
+                search.findAll(text, term, options, actual);
+                assertArrayEquals(sequential(text, term, options), actual.toArray(), term + " " + options);
+            }
+        }
+    }
+
+    @Test
+    void matchesStraddlingEveryBoundaryAreFound() {
+        // One long run: each chunk's first match is shifted by the match crossing into it
+        String text = "a".repeat(LENGTH);
+        Set<SearchOption> options = EnumSet.of(SearchOption.CASE_SENSITIVE);
+        for (String term : new String[] {"aa", "aaa", "aaaaaaa"}) {
+            IntList actual = new IntList();
+            search.findAll(text, term, options, actual);
+            assertArrayEquals(sequential(text, term, options), actual.toArray(), term);
+        }
+    }
+
+    @Test
+    void largeReplacementsUseTheSequentialMatches() {
+        String text = runsOfA(new Random(9));
+        SearchReplaceEngine engine = new SearchReplaceEngine();
+        engine.setOption(SearchOption.WHOLE_WORDS_ONLY, true);
+        ReplacementSet replacements = engine.findReplacements(text, "ab", "x", () -> false, searched -> { });
+
+        int[] expected = sequential(text, "ab", EnumSet.of(SearchOption.WHOLE_WORDS_ONLY));
+        assertEquals(expected.length, replacements.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], replacements.getStart(i));
+            assertEquals(expected[i] + 2, replacements.getEnd(i));
+            assertEquals("x", replacements.getReplacement(i));
+        }
+    }
+
+    @Test
+    void cancelledReplacementIsAborted() {
+        String text = runsOfA(new Random(1));
+        RegexGuard.AbortedException e = assertThrows(RegexGuard.AbortedException.class,
+                () -> new SearchReplaceEngine().findReplacements(text, "a", "b", () -> true, searched -> { }));
+        assertEquals(RegexGuard.Status.CANCELLED, e.getStatus());
+    }
+
+    // Plain non-overlapping scan with the JDK matcher
+    private static int[] sequential(String text, String term, Set<SearchOption> options) {
+        String boundary = options.contains(SearchOption.WHOLE_WORDS_ONLY) ? "\\b" : "";
+        int flags = options.contains(SearchOption.CASE_SENSITIVE) ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+        Matcher m = Pattern.compile(boundary + Pattern.quote(term) + boundary, flags).matcher(text);
+        IntList starts = new IntList();
+        while (m.find()) {
+            starts.add(m.start());
+        }
+        return starts.toArray();
+    }
+
+    // Runs of a's of varying length, so matches of self-overlapping terms straddle boundaries
+    private static String runsOfA(Random random) {
+        StringBuilder text = new StringBuilder(LENGTH);
+        while (text.length() < LENGTH) {
+            int run = random.nextInt(10) == 0 ? random.nextInt(300) : random.nextInt(4);
+            for (int i = 0; i < run && text.length() < LENGTH; i++) {
+                text.append('a');
+            }
+            if (text.length() < LENGTH) text.append("bB A".charAt(random.nextInt(4)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.texteditor.engine;
+
+import com.texteditor.engine.SearchReplaceEngine.SearchOption;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegexGuardTest {
+
+    // The back-reference disables the matcher's loop memoisation, so this
+    // backtracks exponentially on a run of a's with no b
+    private static final Pattern CATASTROPHIC = Pattern.compile("(a*)*\\1b");
+    private static final String RUN = "a".repeat(40);
+
+    @Test
+    void guardedSearchMatchesPlainMatcher() {
+        Random random = new Random(5);
+        String[] patterns = {"a+", "b?a", "(ab|ba)+", "\\s+", "^a", "a$", "(?m)^b"};
+        for (int round = 0; round < 100; round++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(10_000);
+            for (int i = 0; i < length; i++) {
+                text.append("ab \n".charAt(random.nextInt(4)));
+            }
+            Pattern pattern = Pattern.compile(patterns[round % patterns.length]);
+            RegexGuard.Result result = RegexGuard.shared().findAll(pattern, text, RegexGuard.Budget.DEFAULT);
+
+            assertTrue(result.isComplete());
+            MatchResultSet matches = result.getMatches();
+            Matcher m = pattern.matcher(text);
+            int count = 0;
+            while (m.find()) {
+                assertEquals(m.start(), matches.getStart(count));
+                assertEquals(m.end(), matches.getEnd(count));
+                count++;
+            }
+            assertEquals(count, matches.size());
+        }
+    }
+
+    @Test
+    void catastrophicPatternStopsAtTheBudget() {
+        RegexGuard.Result timed = RegexGuard.shared().findAll(CATASTROPHIC, RUN, new RegexGuard.Budget(100, 0));
+        assertEquals(RegexGuard.Status.TIMED_OUT, timed.getStatus());
+        assertFalse(timed.isComplete());
+
+        RegexGuard.Result stepped = RegexGuard.shared().findAll(CATASTROPHIC, RUN, new RegexGuard.Budget(0, 1_000_000));
+        assertEquals(RegexGuard.Status.STEP_LIMIT_EXCEEDED, stepped.getStatus());
+    }
+
+    @Test
+    void cancelledTaskReportsCancelled() throws InterruptedException {
+        RegexGuard.SearchTask task = RegexGuard.shared().submit(CATASTROPHIC, RUN, RegexGuard.Budget.UNLIMITED, null);
+        Thread.sleep(50);
+        task.cancel();
+        assertEquals(RegexGuard.Status.CANCELLED, task.await().getStatus());
+    }
+
+    @Test
+    void idleCursorIsNotCharged() throws InterruptedException {
+        SearchReplaceEngine engine = new SearchReplaceEngine();
+        engine.setOption(SearchOption.USE_REGEX, true);
+        engine.setRegexBudget(new RegexGuard.Budget(200, 0));
+
+        // Long enough that every find reads past a budget check
+        String text = ("x".repeat(20_000) + "y").repeat(4);
+        MatchCursor cursor = engine.cursor(text, "y");
+        int found = 0;
+        while (cursor.next()) {
+            found++;
+            Thread.sleep(100);
+        }
+        assertEquals(4, found);
+    }
+
+    @Test
+    void pausedReadsAreNotCounted() {
+        InterruptibleCharSequence input = new InterruptibleCharSequence("abc".repeat(10_000), 0, 10_000, () -> false);
+        input.pause();
+        for (int i = 0; i < input.length(); i++) {
+            input.charAt(i);
+        }
+        assertEquals(0, input.getSteps());
+        input.resume();
+        assertThrows(RegexGuard.AbortedException.class, () -> {
+            for (int i = 0; i < input.length(); i++) {
+                input.charAt(i);
+            }
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package com.texteditor.engine;
+
+import com.texteditor.model.Document;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplacementSetTest {
+
+    @Test
+    void applyToMatchesEditsAppliedOneByOne() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(200);
+            for (int i = 0; i < length; i++) {
+                text.append("ab \n".charAt(random.nextInt(4)));
+            }
+            ReplacementSet.Builder builder = new ReplacementSet.Builder(null);
+            int position = 0;
+            while (position < text.length()) {
+                int start = position + random.nextInt(10);
+                if (start > text.length()) break;
+                int end = Math.min(text.length(), start + random.nextInt(4));
+                builder.add(start, end, random.nextBoolean() ? "" : "x\ny".substring(0, random.nextInt(4)));
+                position = end + 1;
+            }
+            ReplacementSet replacements = builder.build();
+
+            StringBuilder expected = new StringBuilder(text);
+            Document document = new Document();
+            document.setContent(text.toString());
+            for (int i = replacements.size() - 1; i >= 0; i--) {
+                expected.replace(replacements.getStart(i), replacements.getEnd(i), replacements.getReplacement(i));
+                document.replaceText(replacements.getStart(i), replacements.getEnd(i), replacements.getReplacement(i));
+            }
+
+            Document batched = new Document();
+            batched.setContent(text.toString());
+            batched.setContent(replacements.applyTo(batched.getText()));
+
+            assertEquals(expected.toString(), replacements.applyTo(text));
+            assertEquals(expected.length(), replacements.getResultLength(text.length()));
+            assertEquals(document.getContent(), batched.getContent());
+            assertEquals(document.getWordCount(), batched.getWordCount());
+            assertEquals(document.getLineCount(), batched.getLineCount());
+        }
+    }
+
+    @Test
+    void batchedReplaceScalesWithTextSize() {
+        // 1M matches; applying them one by one to a piece table is quadratic
+        String text = "word ".repeat(1_000_000);
+        ReplacementSet replacements = new SearchReplaceEngine()
+                .findReplacements(text, "word", "term", () -> false, searched -> { });
+        assertEquals(1_000_000, replacements.size());
+
+        Document document = new Document();
+        document.setContent(text);
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> document.setContent(replacements.applyTo(document.getText())));
+        assertEquals("term ".repeat(1_000_000), document.getContent());
+        assertEquals(1_000_000, document.getWordCount());
+    }
+}
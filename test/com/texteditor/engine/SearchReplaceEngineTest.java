@@ -0,0 +1,54 @@
+package com.texteditor.engine;
+
+import com.texteditor.engine.SearchReplaceEngine.SearchOption;
+import com.texteditor.util.IntList;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchReplaceEngineTest {
+
+    // The back-reference disables the matcher's loop memoisation, so this
+    // backtracks exponentially on a run of a's with no b
+    private static final String CATASTROPHIC = "(a*)*\\1b";
+    private static final String RUN = "a".repeat(40);
+
+    private static SearchReplaceEngine regexEngine(RegexGuard.Budget budget) {
+        SearchReplaceEngine engine = new SearchReplaceEngine();
+        engine.setOption(SearchOption.USE_REGEX, true);
+        engine.setRegexBudget(budget);
+        return engine;
+    }
+
+    @Test
+    void findAllReportsCompletedAndInvalidPatterns() {
+        SearchReplaceEngine engine = regexEngine(RegexGuard.Budget.DEFAULT);
+        IntList results = new IntList();
+        assertEquals(RegexGuard.Status.COMPLETED, engine.findAll("a1b22c333", "\\d+", results));
+        assertEquals(3, results.size());
+
+        assertEquals(RegexGuard.Status.INVALID_PATTERN, engine.findAll("abc", "(", new IntList()));
+        assertTrue(engine.findAll("abc", "(").isEmpty());
+    }
+
+    @Test
+    void findAllReportsWhyARegexStopped() {
+        SearchReplaceEngine engine = regexEngine(new RegexGuard.Budget(0, 100_000));
+        IntList results = new IntList();
+        assertEquals(RegexGuard.Status.STEP_LIMIT_EXCEEDED, engine.findAll(RUN, CATASTROPHIC, results));
+
+        RegexGuard.AbortedException e = assertThrows(RegexGuard.AbortedException.class,
+                () -> engine.findAll(RUN, CATASTROPHIC));
+        assertEquals(RegexGuard.Status.STEP_LIMIT_EXCEEDED, e.getStatus());
+        assertThrows(RegexGuard.AbortedException.class, () -> engine.replaceAll(RUN, CATASTROPHIC, "x"));
+    }
+
+    @Test
+    void replaceAllExpandsGroupReferences() {
+        SearchReplaceEngine engine = regexEngine(RegexGuard.Budget.DEFAULT);
+        assertEquals("b-a d-c", engine.replaceAll("a=b c=d", "(\\w)=(\\w)", "$2-$1"));
+
+        SearchReplaceEngine literal = new SearchReplaceEngine();
+        assertEquals("$2 $2", literal.replaceAll("x x", "x", "$2"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.texteditor.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentTest {
+
+    @Test
+    void compactKeepsIndexAndStatistics() {
+        Document document = new Document();
+        document.insertText(0, "one two\nthree\n");
+        LineIndex lines = document.getLineIndex();
+
+        Rope loaded = document.snapshot();
+        CompactText compact = CompactText.encode(loaded);
+        assertTrue(document.compact(loaded, compact));
+
+        assertSame(lines, document.getLineIndex());
+        assertEquals("one two\nthree\n", document.getContent());
+        assertEquals(3, document.getWordCount());
+        assertEquals(3, document.getLineCount());
+
+        document.insertText(0, "zero ");
+        assertEquals(4, document.getWordCount());
+        assertEquals("zero one two\nthree\n", document.snapshot().toString());
+    }
+
+    @Test
+    void compactIsSkippedAfterAnEdit() {
+        Document document = new Document();
+        document.insertText(0, "abc");
+        Rope loaded = document.snapshot();
+        CompactText compact = CompactText.encode(loaded);
+
+        document.insertText(3, "d");
+        assertFalse(document.compact(loaded, compact));
+        assertEquals("abcd", document.getContent());
+    }
+
+    @Test
+    void compactRejectsWideText() {
+        Document document = new Document();
+        document.insertText(0, "€");
+        assertFalse(document.compact());
+        assertEquals("€", document.getContent());
+    }
+
+    @Test
+    void preparedContentKeepsCompactStorage() {
+        Document document = new Document();
+        document.insertText(0, "one two\nthree\n");
+        Rope base = document.snapshot();
+        assertTrue(document.compact(base, CompactText.encode(base)));
+        document.enableTrigramIndex();
+
+        Rope compacted = document.snapshot();
+        Document.Content content = new Document.Content("one\n\ntwo three four", document.isCompacted(),
+                document.getTrigramIndex() != null);
+        assertTrue(document.setContent(compacted, content));
+
+        assertTrue(document.isCompacted());
+        assertNotNull(document.getTrigramIndex());
+        assertEquals("one\n\ntwo three four", document.getContent());
+        assertEquals(4, document.getWordCount());
+        assertEquals(3, document.getLineCount());
+        assertEquals(2, document.getParagraphCount());
+
+        document.insertText(0, "zero ");
+        assertEquals(5, document.getWordCount());
+        assertEquals("zero one\n\ntwo three four", document.snapshot().toString());
+    }
+
+    @Test
+    void preparedContentIsSkippedAfterAnEdit() {
+        Document document = new Document();
+        document.insertText(0, "abc");
+        Rope base = document.snapshot();
+        Document.Content content = new Document.Content("xyz", false, false);
+
+        document.insertText(3, "d");
+        assertFalse(document.setContent(base, content));
+        assertEquals("abcd", document.getContent());
+        assertFalse(document.isCompacted());
+    }
+}
@@ -0,0 +1,78 @@
+package com.texteditor.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.texteditor.TestTexts.randomText;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineIndexTest {
+
+    private static final String ALPHABET = "ab\r\n";
+
+    @Test
+    void editsAroundCrLfPairs() {
+        // Only '\n' ends a line, so a '\r' before it is the line's last column
+        LineIndex index = new LineIndex();
+        StringBuilder text = new StringBuilder();
+        edit(index, text, 0, 0, "one\r\ntwo\r\nthree");
+
+        int pair = text.indexOf("\r\n");
+        // Between the '\r' and the '\n', which leaves the line count alone
+        edit(index, text, pair + 1, pair + 1, "x");
+        edit(index, text, pair + 1, pair + 2, "");
+        // Drop the '\n' of a pair, joining its line to the next
+        edit(index, text, pair + 1, pair + 2, "");
+        // Split before the now lone '\r', then turn it into two pairs
+        edit(index, text, pair, pair, "\n");
+        edit(index, text, pair + 1, pair + 2, "\r\n\r\n");
+        // Across several pairs into the last line
+        edit(index, text, 2, text.length() - 2, "\r\n");
+
+        // Streamed chunks that end between the '\r' and the '\n' of a pair
+        edit(index, text, text.length(), text.length(), "\r");
+        edit(index, text, text.length(), text.length(), "\nfour\r");
+        edit(index, text, text.length(), text.length(), "\n");
+        edit(index, text, 0, text.length(), "");
+    }
+
+    @Test
+    void builtFromText() {
+        assertMatches("", new LineIndex(""));
+        assertMatches("\n", new LineIndex("\n"));
+        assertMatches("one\ntwo\n\nthree", new LineIndex("one\ntwo\n\nthree"));
+        String text = randomText(new Random(3), ALPHABET, 10_000);
+        assertMatches(text, new LineIndex(text));
+
+        LineIndex index = new LineIndex("ab\ncd");
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getLineStart(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getLineOfOffset(-1));
+    }
+
+    private static void edit(LineIndex index, StringBuilder text, int start, int end, String inserted) {
+        index.update(start, text.substring(start, end), inserted);
+        text.replace(start, end, inserted);
+        assertMatches(text.toString(), index);
+    }
+
+    // Line starts, ends and every offset's line and column, against a plain scan
+    private static void assertMatches(String text, LineIndex index) {
+        String[] lines = text.split("\n", -1);
+        assertEquals(lines.length, index.getLineCount());
+        assertEquals(text.length(), index.getTextLength());
+
+        int start = 0;
+        for (int line = 0; line < lines.length; line++) {
+            int end = start + lines[line].length() + (line < lines.length - 1 ? 1 : 0);
+            assertEquals(start, index.getLineStart(line));
+            assertEquals(end, index.getLineEnd(line));
+            for (int offset = start; offset < end; offset++) {
+                assertEquals(line, index.getLineOfOffset(offset));
+                assertEquals(offset - start, index.getColumnOfOffset(offset));
+            }
+            start = end;
+        }
+        assertEquals(lines.length - 1, index.getLineOfOffset(text.length()));
+    }
+}
@@ -0,0 +1,88 @@
+package com.texteditor.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PieceTableTest {
+
+    @Test
+    void editsOnAndAroundPieceBoundaries() {
+        String text = "abXYZcduvef";
+        assertEquals(text, fivePieces().toString());
+        assertEquals(5, fivePieces().getPieceCount());
+
+        // Every offset is on or next to a boundary
+        for (int start = 0; start <= text.length(); start++) {
+            for (int end = start; end <= text.length(); end++) {
+                String range = "[" + start + ", " + end + ")";
+                PieceTable deleted = fivePieces();
+                deleted.delete(start, end);
+                assertEquals(text.substring(0, start) + text.substring(end), deleted.toString(), range);
+
+                PieceTable replaced = fivePieces();
+                replaced.replace(start, end, "#");
+                assertEquals(text.substring(0, start) + "#" + text.substring(end), replaced.toString(), range);
+                assertEquals(text.substring(start, end), fivePieces().subSequence(start, end).toString(), range);
+            }
+            PieceTable inserted = fivePieces();
+            inserted.insert(start, "#");
+            assertEquals(text.substring(0, start) + "#" + text.substring(start), inserted.toString());
+            if (start < text.length()) assertEquals(text.charAt(start), fivePieces().charAt(start));
+        }
+    }
+
+    @Test
+    void typingExtendsTheLastInsertion() {
+        PieceTable table = new PieceTable("hello world");
+        for (char c : "there ".toCharArray()) {
+            table.insert(table.length() - 5, String.valueOf(c));
+        }
+        assertEquals("hello there world", table.toString());
+        assertEquals(3, table.getPieceCount());
+    }
+
+    @Test
+    void deleteDropsPieces() {
+        PieceTable table = new PieceTable("abcdef");
+        table.insert(2, "X");
+        table.insert(5, "Y");
+        assertEquals(5, table.getPieceCount());
+        table.delete(0, table.length());
+        assertEquals(0, table.getPieceCount());
+        assertEquals("", table.toString());
+    }
+
+    @Test
+    void scatteredEditsScale() {
+        Random random = new Random(3);
+        PieceTable table = new PieceTable("x".repeat(1_000_000));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 200_000; i++) {
+                int offset = random.nextInt(table.length());
+                table.replace(offset, offset + 1, "yz");
+                table.charAt(Math.max(0, offset - 1));
+            }
+        });
+        assertEquals(1_200_000, table.length());
+    }
+
+    @Test
+    void rejectsOutOfRangeOffsets() {
+        PieceTable table = new PieceTable("abc");
+        assertThrows(IndexOutOfBoundsException.class, () -> table.insert(4, "x"));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.delete(2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.charAt(3));
+    }
+
+    // "ab" + "XYZ" + "cd" + "uv" + "ef", alternating original and added text
+    private static PieceTable fivePieces() {
+        PieceTable table = new PieceTable("abcdef");
+        table.insert(2, "XYZ");
+        table.insert(7, "uv");
+        return table;
+    }
+}
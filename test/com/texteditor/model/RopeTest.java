@@ -0,0 +1,129 @@
+package com.texteditor.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.texteditor.TestTexts.randomText;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RopeTest {
+
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    @Test
+    void rotationsKeepChunksInOrder() {
+        // Chunks are longer than the 512-char merge threshold, so every insert adds a
+        // leaf; inserts in the middle lean the inner subtree and need double rotations
+        Rope rope = Rope.EMPTY;
+        StringBuilder expected = new StringBuilder();
+        for (int step = 0; step < 400; step++) {
+            String chunk = ("[" + step + "]").repeat(200);
+            int offset;
+            switch (step % 4) {
+                case 0:
+                    offset = 0;
+                    break;
+                case 1:
+                    offset = expected.length();
+                    break;
+                case 2:
+                    offset = expected.length() / 2;
+                    break;
+                default:
+                    offset = expected.lastIndexOf("[", expected.length() / 3);
+            }
+            offset = Math.max(offset, 0);
+            rope = rope.insert(offset, chunk);
+            expected.insert(offset, chunk);
+
+            assertEquals(expected.toString(), rope.toString(), "step " + step);
+            int leaves = 2 * (step + 1);
+            assertTrue(rope.depth() <= 2 * (32 - Integer.numberOfLeadingZeros(leaves)) + 2, "depth " + rope.depth());
+        }
+    }
+
+    @Test
+    void editsOnAndAroundLeafBoundaries() {
+        String text = "a".repeat(600) + "b".repeat(600) + "c".repeat(600);
+        Rope rope = Rope.of("a".repeat(600)).concat(Rope.of("b".repeat(600))).concat(Rope.of("c".repeat(600)));
+        int[] cuts = {0, 1, 599, 600, 601, 1199, 1200, 1201, 1799, 1800};
+        for (int start : cuts) {
+            for (int end : cuts) {
+                if (end < start) continue;
+                String range = "[" + start + ", " + end + ")";
+                assertEquals(text.substring(0, start) + text.substring(end), rope.delete(start, end).toString(), range);
+                assertEquals(text.substring(0, start) + "XY" + text.substring(end),
+                        rope.replace(start, end, "XY").toString(), range);
+                assertEquals(text.substring(start, end), rope.subRope(start, end).toString(), range);
+            }
+            if (start < text.length()) assertEquals(text.charAt(start), rope.charAt(start));
+        }
+    }
+
+    @Test
+    void leavesMergeUpToTheThreshold() {
+        Rope merged = Rope.of("a".repeat(256)).insert(256, "b".repeat(256));
+        assertEquals(0, merged.depth());
+        assertEquals("a".repeat(256) + "b".repeat(256), merged.toString());
+
+        Rope split = Rope.of("a".repeat(256)).insert(256, "b".repeat(257));
+        assertEquals(1, split.depth());
+        assertEquals("a".repeat(256) + "b".repeat(257), split.toString());
+    }
+
+    @Test
+    void oldVersionsAreUnchanged() {
+        Random random = new Random(8);
+        List<Rope> versions = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        Rope rope = Rope.of(randomText(random, LETTERS, 5_000));
+        for (int step = 0; step < 500; step++) {
+            versions.add(rope);
+            contents.add(rope.toString());
+            int start = random.nextInt(rope.length() + 1);
+            int end = Math.min(rope.length(), start + random.nextInt(50));
+            rope = rope.replace(start, end, randomText(random, LETTERS, random.nextInt(50)));
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(contents.get(i), versions.get(i).toString());
+        }
+    }
+
+    @Test
+    void slicesAndConcatenation() {
+        String text = randomText(new Random(2), LETTERS, 10_000);
+        Rope rope = Rope.of(text);
+        Rope slice = rope.subRope(1_234, 7_777);
+        assertEquals(text.substring(1_234, 7_777), slice.toString());
+        assertEquals(text.substring(2_000, 2_010), rope.subSequence(2_000, 2_010).toString());
+        assertEquals(text + text, rope.concat(rope).toString());
+
+        StringBuilder target = new StringBuilder("x");
+        slice.appendTo(target, 10, 20);
+        assertEquals("x" + text.substring(1_244, 1_254), target.toString());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.charAt(10_000));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.delete(5, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.insert(10_001, "a"));
+    }
+
+    @Test
+    void depthStaysLogarithmic() {
+        // Leaves are merged up to 512 chars, so force a new leaf per append
+        Rope rope = Rope.EMPTY;
+        String chunk = "y".repeat(600);
+        for (int i = 0; i < 100_000; i++) {
+            rope = rope.insert(rope.length(), chunk);
+        }
+        assertTrue(rope.depth() <= 2 * 17 + 2, "depth " + rope.depth());
+
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            rope = rope.insert(random.nextInt(rope.length() + 1), chunk);
+        }
+        assertTrue(rope.depth() <= 2 * 18 + 2, "depth " + rope.depth());
+    }
+}
@@ -0,0 +1,83 @@
+package com.texteditor.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextStatisticsTest {
+
+    @Test
+    void editsNextToLineBreakRuns() {
+        // Each edit only sees two chars of context, so these cases sit right at its edges
+        Document document = new Document();
+        StringBuilder text = new StringBuilder();
+        edit(document, text, 0, 0, "one two\n\nthree");
+
+        int run = text.indexOf("\n\n");
+        edit(document, text, run + 1, run + 1, "\n");      // a longer run is still one break
+        edit(document, text, run, run + 2, "");            // back to a single line break
+        edit(document, text, run + 1, run + 1, "\n");      // a break formed after the context
+        edit(document, text, run + 1, run + 1, "x");       // split by a char
+        edit(document, text, run + 1, run + 2, "");        // and joined again
+        edit(document, text, run + 1, run + 3, "\r\n\r");  // '\r' is whitespace, not a break
+        edit(document, text, 0, 0, "\n\n");                // a run at the very start
+        edit(document, text, text.length(), text.length(), "\n");
+        edit(document, text, text.length(), text.length(), "\n");
+        edit(document, text, 0, 2, "");
+    }
+
+    @Test
+    void editsThatJoinAndSplitWords() {
+        Document document = new Document();
+        StringBuilder text = new StringBuilder();
+        edit(document, text, 0, 0, "one two\tthree");
+
+        int space = text.indexOf(" ");
+        edit(document, text, space, space + 1, "");   // "onetwo"
+        edit(document, text, space, space, "\t \n");  // split by a mix of whitespace
+        edit(document, text, 0, 1, " ");              // first char becomes whitespace
+        edit(document, text, 0, 1, "O");
+        edit(document, text, text.length() - 1, text.length(), "");
+        edit(document, text, 2, text.length() - 2, "");  // a word made of both ends
+    }
+
+    private static void edit(Document document, StringBuilder expected, int start, int end, String inserted) {
+        document.replaceText(start, end, inserted);
+        expected.replace(start, end, inserted);
+
+        String text = expected.toString();
+        assertEquals(words(text), document.getWordCount(), text);
+        assertEquals(nonWhitespace(text), document.getCharacterCountWithoutSpaces(), text);
+        assertEquals(paragraphs(text), document.getParagraphCount(), text);
+    }
+
+    @Test
+    void wholeTextCounts() {
+        TextStatistics statistics = new TextStatistics("one two\n\nthree\n\n\n\nfour\nfive\t ");
+        assertEquals(5, statistics.getWordCount());
+        assertEquals(19, statistics.getNonWhitespaceCount());
+        assertEquals(3, statistics.getParagraphCount());
+        assertEquals(1, new TextStatistics("").getParagraphCount());
+    }
+
+    // Naive references over the whole text
+
+    private static int words(String text) {
+        int words = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (!TextStatistics.isWhitespace(text.charAt(i))
+                    && (i == 0 || TextStatistics.isWhitespace(text.charAt(i - 1)))) {
+                words++;
+            }
+        }
+        return words;
+    }
+
+    private static int nonWhitespace(String text) {
+        return text.replaceAll("\\s", "").length();
+    }
+
+    private static int paragraphs(String text) {
+        return text.split("\n{2,}", -1).length;
+    }
+}
@@ -0,0 +1,68 @@
+package com.texteditor.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.texteditor.TestTexts.randomText;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private static final String ALPHABET = "abcdeABC \n";
+
+    @Test
+    void candidatesCoverEveryOccurrence() {
+        Random random = new Random(11);
+        StringBuilder text = new StringBuilder(randomText(random, ALPHABET, 100_000));
+        TrigramIndex index = new TrigramIndex(text);
+
+        for (int round = 0; round < 300; round++) {
+            // Edit, then check the maintained index against the text
+            int position = random.nextInt(text.length());
+            int removed = Math.min(text.length() - position, random.nextInt(3 * TrigramIndex.BLOCK_SIZE));
+            int length = random.nextBoolean() ? random.nextInt(50) : random.nextInt(3 * TrigramIndex.BLOCK_SIZE);
+            String inserted = randomText(random, ALPHABET, length);
+            text.replace(position, position + removed, inserted);
+            index.update(text, position, removed, inserted.length());
+
+            String term = randomText(random, ALPHABET, 3 + random.nextInt(5));
+            assertCovered(text, index, term);
+            int start = random.nextInt(text.length() - 10);
+            assertCovered(text, index, text.substring(start, start + 3 + random.nextInt(7)));
+        }
+    }
+
+    @Test
+    void shortTermsMatchEverywhere() {
+        TrigramIndex index = new TrigramIndex("hello");
+        List<int[]> ranges = new ArrayList<>();
+        index.findCandidates("he", ranges);
+        assertEquals(1, ranges.size());
+        assertArrayEquals(new int[]{0, 5}, ranges.get(0));
+    }
+
+    @Test
+    void absentTermHasNoCandidates() {
+        TrigramIndex index = new TrigramIndex("abc ".repeat(50_000));
+        List<int[]> ranges = new ArrayList<>();
+        index.findCandidates("xyz", ranges);
+        assertTrue(ranges.isEmpty());
+    }
+
+    private static void assertCovered(CharSequence text, TrigramIndex index, String term) {
+        List<int[]> ranges = new ArrayList<>();
+        index.findCandidates(term, ranges);
+        String folded = text.toString().toLowerCase();
+        String foldedTerm = term.toLowerCase();
+        for (int at = folded.indexOf(foldedTerm); at >= 0; at = folded.indexOf(foldedTerm, at + 1)) {
+            boolean covered = false;
+            for (int[] range : ranges) {
+                if (range[0] <= at && at < range[1]) covered = true;
+            }
+            assertTrue(covered, "occurrence of " + term + " at " + at + " outside candidates");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.texteditor.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTextFileTest {
+
+    @Test
+    void linesMatchASplitOfTheFile() throws Exception {
+        Random random = new Random(2);
+        List<String> expected = new ArrayList<>();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) {
+            String line = "line " + i + " " + "é€".repeat(random.nextInt(20));
+            expected.add(line);
+            content.append(line).append(random.nextBoolean() ? "\n" : "\r\n");
+        }
+
+        try (MappedTextFile file = open(content.toString())) {
+            assertEquals(expected.size(), file.getAvailableLineCount());
+            // Forwards, backwards and scattered, so every lookup path is used
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), file.getLine(i));
+            }
+            for (int i = expected.size() - 1; i >= 0; i -= 7) {
+                assertEquals(expected.get(i), file.getLine(i));
+            }
+            for (int i = 0; i < 1_000; i++) {
+                int line = random.nextInt(expected.size());
+                assertEquals(expected.get(line), file.getLine(line));
+            }
+        }
+    }
+
+    @Test
+    void lastLineWithoutTerminator() throws Exception {
+        try (MappedTextFile file = open("a\n\nb")) {
+            assertEquals(3, file.getAvailableLineCount());
+            assertEquals("", file.getLine(1));
+            assertEquals("b", file.getLine(2));
+            assertThrows(IndexOutOfBoundsException.class, () -> file.getLine(3));
+        }
+    }
+
+    @Test
+    void longLinesAreCutOnACharacterBoundary() throws Exception {
+        // 3-byte characters never line up with the 64 KB limit
+        String line = "€".repeat(40_000);
+        try (MappedTextFile file = open(line + "\nnext\n")) {
+            String truncated = file.getLine(0);
+            assertEquals(65_536 / 3, truncated.length());
+            assertTrue(line.startsWith(truncated));
+            assertEquals("next", file.getLine(1));
+        }
+    }
+
+    private static MappedTextFile open(String content) throws IOException, InterruptedException {
+        Path path = Files.createTempFile("mapped", ".txt");
+        path.toFile().deleteOnExit();
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        MappedTextFile file = new MappedTextFile(path);
+        file.startIndexing(() -> { });
+        while (!file.isIndexComplete() && file.getIndexFailure() == null) {
+            Thread.sleep(5);
+        }
+        assertNull(file.getIndexFailure());
+        return file;
+    }
+}